@@ -3,6 +3,12 @@ package ir.ac.kntu;
 import ir.ac.kntu.handlers.MainMenu;
 import ir.ac.kntu.helper.Logger;
 import ir.ac.kntu.models.enums.TextColor;
+import ir.ac.kntu.server.ApiServer;
+import ir.ac.kntu.server.MenuServer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 public class Main {
 
@@ -12,6 +18,20 @@ public class Main {
         Logger logger = Logger.getInstance();
         logger.info("Application is starting...");
 
+        List<String> options = Arrays.asList(args);
+        int serverFlag = options.indexOf("--server");
+        if (serverFlag >= 0) {
+            int port = serverFlag + 1 < args.length ? Integer.parseInt(args[serverFlag + 1]) : MenuServer.DEFAULT_PORT;
+            runServer(port);
+            return;
+        }
+        int apiFlag = options.indexOf("--api");
+        if (apiFlag >= 0) {
+            int port = apiFlag + 1 < args.length ? Integer.parseInt(args[apiFlag + 1]) : ApiServer.DEFAULT_PORT;
+            runApi(port);
+            return;
+        }
+
         printSupportCredentials();
 
         MainMenu startMenu = new MainMenu();
@@ -19,6 +39,45 @@ public class Main {
         logger.info("Application finished. Goodbye!");
     }
 
+    // Serves the menus to TCP clients until the JVM is asked to stop
+    private static void runServer(int port) {
+        Logger logger = Logger.getInstance();
+        MenuServer server = new MenuServer(port, MenuServer.DEFAULT_MAX_CONNECTIONS);
+        try {
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.shutdown(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            server.awaitStop();
+        } catch (IOException e) {
+            logger.error("Could not start server: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Server stopped.");
+    }
+
+    // Serves the JSON API until the JVM is asked to stop
+    private static void runApi(int port) {
+        ApiServer server = new ApiServer(port, Runtime.getRuntime().availableProcessors() * 4);
+        try {
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.stop(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        } catch (IOException e) {
+            Logger.getInstance().error("Could not start API server: " + e.getMessage());
+        }
+    }
+
     private static void printSupportCredentials() {
         Logger logger = Logger.getInstance();
         logger.print("\n" + "=".repeat(50), TextColor.BLUE);
@@ -0,0 +1,68 @@
+package ir.ac.kntu.events;
+
+import ir.ac.kntu.models.LedgerEntry;
+import ir.ac.kntu.models.enums.LedgerReason;
+import ir.ac.kntu.models.enums.OrderStatus;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * DomainEvent
+ *
+ * Something that happened to an order or a wallet, as handed to EventBus
+ * subscribers. Events are immutable and stamped with the time they were published,
+ * which is what subscriber lag is measured against. Each one can be written as a
+ * single ASCII line and read back, so slow subscribers can have them spilled to disk.
+ * A line carries the whole event and refers to nothing in memory, so it still reads
+ * the same after a restart.
+ */
+public abstract class DomainEvent {
+    protected static final String SEPARATOR = "|";
+
+    private final long publishedAt;
+
+    protected DomainEvent(long publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+
+    // Wall-clock time in milliseconds when the event was published, so it stays meaningful after a restart
+    public long getPublishedAt() {
+        return publishedAt;
+    }
+
+    public abstract String toRecord();
+
+    // Reads back a line written by toRecord
+    public static DomainEvent fromRecord(String record) {
+        String[] fields = record.split("\\|", -1);
+        long publishedAt = Long.parseLong(fields[1]);
+        int next = 2 + OrderSummary.FIELDS;
+        switch (fields[0]) {
+            case OrderPlaced.TYPE:
+                return new OrderPlaced(OrderSummary.fromFields(fields, 2), publishedAt);
+            case StatusChanged.TYPE:
+                return new StatusChanged(OrderSummary.fromFields(fields, 2), OrderStatus.valueOf(fields[next]),
+                        OrderStatus.valueOf(fields[next + 1]), publishedAt);
+            case Reviewed.TYPE:
+                return new Reviewed(OrderSummary.fromFields(fields, 2), Integer.parseInt(fields[next]),
+                        decode(fields[next + 1]), publishedAt);
+            case WalletMoved.TYPE:
+                return new WalletMoved(decode(fields[2]), new LedgerEntry(Long.parseLong(fields[3]),
+                        Long.parseLong(fields[4]), Long.parseLong(fields[5]), Long.parseLong(fields[6]),
+                        LedgerReason.valueOf(fields[7])), publishedAt);
+            default:
+                throw new IllegalArgumentException("Unknown event record: " + record);
+        }
+    }
+
+    // Free text is URL encoded so it stays on one ASCII line without separators
+    protected static String encode(String text) {
+        return URLEncoder.encode(text == null ? "" : text, StandardCharsets.UTF_8);
+    }
+
+    protected static String decode(String text) {
+        return URLDecoder.decode(text, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package ir.ac.kntu.events;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/*
+ * EventBus
+ *
+ * In-process publish/subscribe for order and wallet events. Every subscriber gets
+ * its own bounded ring buffer and delivery thread, so publishing never runs
+ * subscriber code and one slow subscriber only affects others if it asked to
+ * block. Publishers should check hasSubscribers() before building an event, which
+ * keeps the publishing paths free of allocation while nobody listens.
+ */
+public class EventBus {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final List<Subscription> subscriptions;
+    private final Path spillDirectory;
+
+    public EventBus(Path spillDirectory) {
+        this.subscriptions = new CopyOnWriteArrayList<>();
+        this.spillDirectory = spillDirectory;
+    }
+
+    private static final class Holder {
+        private static final EventBus INSTANCE =
+                new EventBus(Path.of(System.getProperty("java.io.tmpdir"), "foodli-events"));
+    }
+
+    public static EventBus getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public Subscription subscribe(String name, SlowConsumerPolicy policy, EventSubscriber subscriber) {
+        return subscribe(name, policy, DEFAULT_CAPACITY, subscriber);
+    }
+
+    /**
+     * Starts delivering to the subscriber. Names identify spill files, so a name can only
+     * be subscribed once at a time; events a SPILL subscriber of the same name left on
+     * disk in an earlier run are delivered first.
+     */
+    public synchronized Subscription subscribe(String name, SlowConsumerPolicy policy, int capacity,
+                                               EventSubscriber subscriber) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        for (Subscription existing : subscriptions) {
+            if (existing.getName().equals(name)) {
+                throw new IllegalArgumentException("A subscriber named " + name + " is already subscribed");
+            }
+        }
+        Subscription subscription = new Subscription(name, subscriber, policy, new Settings(capacity, spillDirectory));
+        subscription.start();
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public void unsubscribe(Subscription subscription, long graceMillis) throws InterruptedException {
+        subscriptions.remove(subscription);
+        subscription.close(graceMillis);
+    }
+
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    public void publish(DomainEvent event) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.isAbandoned()) {
+                // Its worker died; stop publishing to it so hasSubscribers() can go false again
+                subscriptions.remove(subscription);
+            } else {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    public List<Subscription> getSubscriptions() {
+        return new ArrayList<>(subscriptions);
+    }
+
+    // What a new subscription is built with
+    public static final class Settings {
+        private final int capacity;
+        private final Path spillDirectory;
+
+        public Settings(int capacity, Path spillDirectory) {
+            this.capacity = capacity;
+            this.spillDirectory = spillDirectory;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public Path getSpillDirectory() {
+            return spillDirectory;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ir.ac.kntu.events;
+
+import java.util.function.Consumer;
+
+/*
+ * EventSubscriber
+ *
+ * Receives events on its subscription's own thread, one at a time and in
+ * publishing order.
+ */
+@FunctionalInterface
+public interface EventSubscriber {
+    void onEvent(DomainEvent event);
+
+    // Passes on only the events of the given type
+    static <T extends DomainEvent> EventSubscriber ofType(Class<T> type, Consumer<? super T> handler) {
+        return event -> {
+            if (type.isInstance(event)) {
+                handler.accept(type.cast(event));
+            }
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package ir.ac.kntu.events;
+
+import ir.ac.kntu.models.Order;
+
+/*
+ * OrderPlaced
+ *
+ * A new order was filed and pushed to its restaurant's intake.
+ */
+public class OrderPlaced extends DomainEvent {
+    public static final String TYPE = "PLACED";
+
+    private final OrderSummary order;
+
+    public OrderPlaced(Order order) {
+        this(OrderSummary.from(order), System.currentTimeMillis());
+    }
+
+    public OrderPlaced(OrderSummary order, long publishedAt) {
+        super(publishedAt);
+        this.order = order;
+    }
+
+    public OrderSummary getOrder() {
+        return order;
+    }
+
+    @Override
+    public String toRecord() {
+        return TYPE + SEPARATOR + getPublishedAt() + SEPARATOR + order.toRecord();
+    }
+}
@@ -0,0 +1,68 @@
+package ir.ac.kntu.events;
+
+import ir.ac.kntu.models.Order;
+import ir.ac.kntu.utilities.Money;
+
+/*
+ * OrderSummary
+ *
+ * What an order event needs to say about its order, copied when the event is
+ * created. The customer is named by phone number and the restaurant by name, as
+ * in the saved orders, so a summary read back from a spill file stands on its own:
+ * order IDs start again from 1 after a restart and cannot be looked up.
+ */
+public final class OrderSummary {
+    // Fields taken by toRecord
+    public static final int FIELDS = 4;
+
+    private final int orderId;
+    private final String customerPhone;
+    private final String restaurantName;
+    private final long amount;
+
+    public OrderSummary(int orderId, String customerPhone, String restaurantName, long amount) {
+        this.orderId = orderId;
+        this.customerPhone = customerPhone;
+        this.restaurantName = restaurantName;
+        this.amount = amount;
+    }
+
+    public static OrderSummary from(Order order) {
+        return new OrderSummary(order.getId(), order.getCustomer().getPhoneNumber(),
+                order.getRestaurant().getName(), Money.toMinor(order.getFinalAmount()));
+    }
+
+    // The ID the order had in the run that published the event
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public String getCustomerPhone() {
+        return customerPhone;
+    }
+
+    public String getRestaurantName() {
+        return restaurantName;
+    }
+
+    // The final amount, delivery included, in minor units
+    public long getAmount() {
+        return amount;
+    }
+
+    public String toRecord() {
+        return orderId + DomainEvent.SEPARATOR + DomainEvent.encode(customerPhone) + DomainEvent.SEPARATOR
+                + DomainEvent.encode(restaurantName) + DomainEvent.SEPARATOR + amount;
+    }
+
+    // Reads the fields written by toRecord, starting at the given index
+    public static OrderSummary fromFields(String[] fields, int start) {
+        return new OrderSummary(Integer.parseInt(fields[start]), DomainEvent.decode(fields[start + 1]),
+                DomainEvent.decode(fields[start + 2]), Long.parseLong(fields[start + 3]));
+    }
+
+    @Override
+    public String toString() {
+        return "order " + orderId + " of " + customerPhone + " at " + restaurantName + " (" + amount + ")";
+    }
+}
@@ -0,0 +1,46 @@
+package ir.ac.kntu.events;
+
+import ir.ac.kntu.models.Order;
+
+/*
+ * Reviewed
+ *
+ * A delivered order was rated by its customer.
+ */
+public class Reviewed extends DomainEvent {
+    public static final String TYPE = "REVIEWED";
+
+    private final OrderSummary order;
+    private final int rating;
+    private final String comment;
+
+    public Reviewed(Order order, int rating, String comment) {
+        this(OrderSummary.from(order), rating, comment, System.currentTimeMillis());
+    }
+
+    public Reviewed(OrderSummary order, int rating, String comment, long publishedAt) {
+        super(publishedAt);
+        this.order = order;
+        this.rating = rating;
+        this.comment = comment == null ? "" : comment;
+    }
+
+    public OrderSummary getOrder() {
+        return order;
+    }
+
+    public int getRating() {
+        return rating;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    @Override
+    public String toRecord() {
+        // URL encoding keeps the comment on one ASCII line without separators
+        return TYPE + SEPARATOR + getPublishedAt() + SEPARATOR + order.toRecord()
+                + SEPARATOR + rating + SEPARATOR + encode(comment);
+    }
+}
@@ -0,0 +1,15 @@
+package ir.ac.kntu.events;
+
+/*
+ * SlowConsumerPolicy
+ *
+ * What publishing does when a subscriber's ring buffer is full.
+ */
+public enum SlowConsumerPolicy {
+    // The publisher waits for room, so nothing is lost but a slow subscriber slows everyone
+    BLOCK,
+    // The event is skipped for this subscriber and counted as dropped
+    DROP,
+    // The event is appended to the subscriber's spill file and delivered from there, in order
+    SPILL
+}
@@ -0,0 +1,47 @@
+package ir.ac.kntu.events;
+
+import ir.ac.kntu.models.Order;
+import ir.ac.kntu.models.enums.OrderStatus;
+
+/*
+ * StatusChanged
+ *
+ * An order moved from one status to another. Published once per transition, after
+ * its refund or delivery credit has been applied.
+ */
+public class StatusChanged extends DomainEvent {
+    public static final String TYPE = "STATUS";
+
+    private final OrderSummary order;
+    private final OrderStatus from;
+    private final OrderStatus to;
+
+    public StatusChanged(Order order, OrderStatus from, OrderStatus to) {
+        this(OrderSummary.from(order), from, to, System.currentTimeMillis());
+    }
+
+    public StatusChanged(OrderSummary order, OrderStatus from, OrderStatus to, long publishedAt) {
+        super(publishedAt);
+        this.order = order;
+        this.from = from;
+        this.to = to;
+    }
+
+    public OrderSummary getOrder() {
+        return order;
+    }
+
+    public OrderStatus getFrom() {
+        return from;
+    }
+
+    public OrderStatus getTo() {
+        return to;
+    }
+
+    @Override
+    public String toRecord() {
+        return TYPE + SEPARATOR + getPublishedAt() + SEPARATOR + order.toRecord()
+                + SEPARATOR + from.name() + SEPARATOR + to.name();
+    }
+}
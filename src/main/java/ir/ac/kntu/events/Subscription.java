@@ -0,0 +1,396 @@
+package ir.ac.kntu.events;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Subscription
+ *
+ * One subscriber's ring buffer and the thread that drains it. Publishers write into
+ * the ring without waiting for the subscriber; when the ring is full the policy
+ * decides whether they wait, drop the event or spill it to a file. Once anything has
+ * been spilled, later events follow it into the file until the subscriber has caught
+ * up, so delivery order always matches publishing order. The spill file is named
+ * after the subscriber and what has been delivered from it is checkpointed next to
+ * it, so a subscriber of the same name picks up the rest after a restart.
+ *
+ * Lag is the number of events published to this subscriber and not yet handled or
+ * dropped; the delay is how long the last delivered event waited. An event the
+ * subscriber throws on is counted as failed and delivery carries on; if the delivery
+ * thread itself dies, the subscription is abandoned and its backlog counted as dropped.
+ */
+public class Subscription {
+    private static final long POLL_MILLIS = 100;
+
+    private final String name;
+    private final EventSubscriber subscriber;
+    private final SlowConsumerPolicy policy;
+    private final BlockingQueue<DomainEvent> ring;
+    private final int capacity;
+    private final Path spillFile;
+    private final Path offsetFile;
+    private final Object spillLock;
+    private final Deque<DomainEvent> refilled;
+    private final LongAdder published;
+    private final LongAdder delivered;
+    private final LongAdder dropped;
+    private final LongAdder spilled;
+    private final LongAdder failed;
+    private final AtomicLong lastDelayMillis;
+    private volatile boolean running;
+    // Set when the worker itself died; nothing will be delivered any more
+    private volatile boolean abandoned;
+    private final Thread worker;
+    // Guarded by spillLock
+    private Writer spillWriter;
+    private long spillWaiting;
+    private long spillReadOffset;
+    // Where the file is known to have been delivered up to
+    private long committedOffset;
+
+    public Subscription(String name, EventSubscriber subscriber, SlowConsumerPolicy policy, EventBus.Settings settings) {
+        this.name = name;
+        this.subscriber = subscriber;
+        this.policy = policy;
+        this.capacity = settings.getCapacity();
+        this.ring = new ArrayBlockingQueue<>(capacity);
+        String fileName = "events-" + name.replaceAll("[^A-Za-z0-9_-]", "_");
+        this.spillFile = settings.getSpillDirectory().resolve(fileName + ".log");
+        this.offsetFile = settings.getSpillDirectory().resolve(fileName + ".offset");
+        this.spillLock = new Object();
+        this.refilled = new ArrayDeque<>();
+        this.published = new LongAdder();
+        this.delivered = new LongAdder();
+        this.dropped = new LongAdder();
+        this.spilled = new LongAdder();
+        this.failed = new LongAdder();
+        this.lastDelayMillis = new AtomicLong();
+        this.running = true;
+        this.worker = newWorker();
+        recoverSpill();
+    }
+
+    public void start() {
+        worker.start();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SlowConsumerPolicy getPolicy() {
+        return policy;
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getSpilled() {
+        return spilled.sum();
+    }
+
+    // Events the subscriber threw on; they count as delivered
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getLag() {
+        return published.sum() - delivered.sum() - dropped.sum();
+    }
+
+    public long getLastDelayMillis() {
+        return lastDelayMillis.get();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isAbandoned() {
+        return abandoned;
+    }
+
+    public void offer(DomainEvent event) {
+        published.increment();
+        if (!running) {
+            dropped.increment();
+            return;
+        }
+        switch (policy) {
+            case BLOCK:
+                putWaiting(event);
+                break;
+            case DROP:
+                if (!ring.offer(event)) {
+                    dropped.increment();
+                }
+                break;
+            default:
+                offerOrSpill(event);
+                break;
+        }
+        if (abandoned) {
+            // The worker died after this publisher checked; count what it left behind
+            discardBacklog();
+        }
+    }
+
+    /**
+     * Stops taking events and waits up to the grace period for the ones already taken
+     * to be delivered.
+     */
+    public void close(long graceMillis) throws InterruptedException {
+        running = false;
+        worker.join(graceMillis);
+    }
+
+    // Anything that escapes deliver() is not recoverable, so the subscription is shut down
+    private Thread newWorker() {
+        Thread thread = new Thread(this::drain, "foodli-events-" + name);
+        thread.setDaemon(true);
+        thread.setUncaughtExceptionHandler((dead, error) -> abandon(error));
+        return thread;
+    }
+
+    private void abandon(Throwable error) {
+        System.err.println("Subscriber " + name + " stopped: " + error);
+        abandoned = true;
+        running = false;
+        discardBacklog();
+    }
+
+    // Counts everything still waiting as dropped, so lag settles and blocked publishers move on
+    private void discardBacklog() {
+        synchronized (spillLock) {
+            while (ring.poll() != null) {
+                dropped.increment();
+            }
+            dropped.add(refilled.size() + spillWaiting);
+            refilled.clear();
+            spillWaiting = 0;
+            deleteSpill();
+        }
+    }
+
+    private void putWaiting(DomainEvent event) {
+        try {
+            while (!ring.offer(event, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    dropped.increment();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.increment();
+        }
+    }
+
+    private void offerOrSpill(DomainEvent event) {
+        synchronized (spillLock) {
+            if (spillWaiting == 0 && ring.offer(event)) {
+                return;
+            }
+            try {
+                if (spillWriter == null) {
+                    Files.createDirectories(spillFile.getParent());
+                    spillWriter = Files.newBufferedWriter(spillFile, StandardCharsets.US_ASCII,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                spillWriter.write(event.toRecord());
+                spillWriter.write('\n');
+                spillWriter.flush();
+                spillWaiting++;
+                spilled.increment();
+            } catch (IOException e) {
+                System.err.println("Could not spill event for " + name + ": " + e.getMessage());
+                dropped.increment();
+            }
+        }
+    }
+
+    private void drain() {
+        while (running || hasBacklog()) {
+            try {
+                DomainEvent event = next();
+                if (event != null) {
+                    deliver(event);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        synchronized (spillLock) {
+            commitSpill();
+            closeSpillWriter();
+        }
+    }
+
+    private boolean hasBacklog() {
+        synchronized (spillLock) {
+            return !ring.isEmpty() || !refilled.isEmpty() || spillWaiting > 0;
+        }
+    }
+
+    // Refilled events were published before anything now in the ring, so they go first
+    private DomainEvent next() throws InterruptedException {
+        if (!refilled.isEmpty()) {
+            return refilled.poll();
+        }
+        DomainEvent event = ring.poll();
+        if (event != null) {
+            return event;
+        }
+        if (refillFromSpill()) {
+            return refilled.poll();
+        }
+        return ring.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Picks up what an earlier subscriber of this name spilled and did not get to
+    private void recoverSpill() {
+        synchronized (spillLock) {
+            if (!Files.exists(spillFile)) {
+                return;
+            }
+            spillReadOffset = readCommittedOffset();
+            committedOffset = spillReadOffset;
+            try (RandomAccessFile file = new RandomAccessFile(spillFile.toFile(), "r")) {
+                file.seek(spillReadOffset);
+                while (file.readLine() != null) {
+                    spillWaiting++;
+                }
+            } catch (IOException e) {
+                System.err.println("Could not read spilled events for " + name + ": " + e.getMessage());
+                spillWaiting = 0;
+            }
+            if (spillWaiting == 0) {
+                deleteSpill();
+            }
+            published.add(spillWaiting);
+        }
+    }
+
+    private long readCommittedOffset() {
+        try {
+            return Files.exists(offsetFile) ? Long.parseLong(Files.readString(offsetFile).trim()) : 0;
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Could not read spill checkpoint for " + name + "; replaying the whole file");
+            return 0;
+        }
+    }
+
+    // Reads up to a ring's worth of spilled events once the previous batch has been delivered
+    private boolean refillFromSpill() {
+        synchronized (spillLock) {
+            commitSpill();
+            if (spillWaiting == 0 || !ring.isEmpty()) {
+                return false;
+            }
+            try (RandomAccessFile file = new RandomAccessFile(spillFile.toFile(), "r")) {
+                file.seek(spillReadOffset);
+                String line = file.readLine();
+                while (line != null && refilled.size() < capacity) {
+                    spillWaiting--;
+                    readRecord(line);
+                    line = refilled.size() < capacity ? file.readLine() : null;
+                }
+                spillReadOffset = file.getFilePointer();
+            } catch (IOException e) {
+                System.err.println("Could not read spilled events for " + name + ": " + e.getMessage());
+                dropped.add(spillWaiting);
+                spillWaiting = 0;
+            }
+            return !refilled.isEmpty();
+        }
+    }
+
+    // A line cut short by a crash while spilling cannot be read back and is dropped
+    private void readRecord(String line) {
+        try {
+            refilled.add(DomainEvent.fromRecord(line));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            System.err.println("Skipping unreadable spilled event for " + name + ": " + line);
+            dropped.increment();
+        }
+    }
+
+    /*
+     * Called when everything read from the file so far has been delivered. Records how
+     * far that is, or removes the file once nothing in it is left to deliver.
+     */
+    private void commitSpill() {
+        if (spillReadOffset == committedOffset) {
+            return;
+        }
+        if (spillWaiting == 0) {
+            deleteSpill();
+            return;
+        }
+        try {
+            Files.writeString(offsetFile, Long.toString(spillReadOffset));
+            committedOffset = spillReadOffset;
+        } catch (IOException e) {
+            System.err.println("Could not checkpoint spilled events for " + name + ": " + e.getMessage());
+        }
+    }
+
+    private void deleteSpill() {
+        closeSpillWriter();
+        spillReadOffset = 0;
+        committedOffset = 0;
+        try {
+            Files.deleteIfExists(spillFile);
+            Files.deleteIfExists(offsetFile);
+        } catch (IOException e) {
+            System.err.println("Could not remove spill file " + spillFile + ": " + e.getMessage());
+        }
+    }
+
+    private void closeSpillWriter() {
+        if (spillWriter == null) {
+            return;
+        }
+        try {
+            spillWriter.close();
+        } catch (IOException e) {
+            System.err.println("Could not close spill file " + spillFile + ": " + e.getMessage());
+        }
+        spillWriter = null;
+    }
+
+    // A subscriber that throws loses only that event; the same thread carries on with the next
+    private void deliver(DomainEvent event) {
+        try {
+            subscriber.onEvent(event);
+        } catch (RuntimeException e) {
+            failed.increment();
+            System.err.println("Subscriber " + name + " failed on an event: " + e.getMessage());
+        } finally {
+            lastDelayMillis.set(System.currentTimeMillis() - event.getPublishedAt());
+            delivered.increment();
+        }
+    }
+}
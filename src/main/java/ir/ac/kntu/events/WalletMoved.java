@@ -0,0 +1,44 @@
+package ir.ac.kntu.events;
+
+import ir.ac.kntu.models.LedgerEntry;
+
+/*
+ * WalletMoved
+ *
+ * Money went into or out of a wallet; carries the ledger entry that records it and
+ * the wallet's owner. Wallet IDs and ledger sequences are handed out afresh in every
+ * run, so after a restart only the owner says whose wallet it was.
+ */
+public class WalletMoved extends DomainEvent {
+    public static final String TYPE = "WALLET";
+
+    private final String owner;
+    private final LedgerEntry entry;
+
+    public WalletMoved(String owner, LedgerEntry entry) {
+        this(owner, entry, System.currentTimeMillis());
+    }
+
+    public WalletMoved(String owner, LedgerEntry entry, long publishedAt) {
+        super(publishedAt);
+        this.owner = owner;
+        this.entry = entry;
+    }
+
+    // Such as customer:09120000000 or restaurant:Pizza Hut
+    public String getOwner() {
+        return owner;
+    }
+
+    public LedgerEntry getEntry() {
+        return entry;
+    }
+
+    @Override
+    public String toRecord() {
+        return TYPE + SEPARATOR + getPublishedAt() + SEPARATOR + encode(owner)
+                + SEPARATOR + entry.getSequence() + SEPARATOR + entry.getWalletId()
+                + SEPARATOR + entry.getAmount() + SEPARATOR + entry.getBalanceAfter()
+                + SEPARATOR + entry.getReason().name();
+    }
+}
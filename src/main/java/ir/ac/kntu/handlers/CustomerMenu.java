@@ -5,6 +5,7 @@ import ir.ac.kntu.managers.InputManager;
 import ir.ac.kntu.managers.RestaurantManager;
 import ir.ac.kntu.managers.CartManager;
 import ir.ac.kntu.managers.OrderManager;
+import ir.ac.kntu.managers.RestaurantFilter;
 import ir.ac.kntu.models.MenuItem;
 import ir.ac.kntu.models.User;
 import ir.ac.kntu.models.Customer;
@@ -85,13 +86,21 @@ public class CustomerMenu extends Menu {
             return;
         }
 
-        List<Restaurant> results = restaurantManager.searchRestaurants(searchTerm);
-        results = results.stream()
+        RestaurantManager.SearchOutcome outcome = restaurantManager.search(searchTerm);
+        if (outcome.isCorrected()) {
+            logger.print("Showing results for: " + outcome.getCorrectedQuery(), TextColor.CYAN);
+        }
+
+        List<Restaurant> results = outcome.getRestaurants().stream()
                 .filter(r -> r.getStatus() == ir.ac.kntu.models.enums.RestaurantStatus.APPROVED)
                 .collect(java.util.stream.Collectors.toCollection(ArrayList::new));
 
         if (results.isEmpty()) {
             logger.print("No restaurants found for: " + searchTerm, TextColor.YELLOW);
+            List<String> suggestions = restaurantManager.getSearchSuggestions(searchTerm);
+            if (!suggestions.isEmpty()) {
+                logger.print("Did you mean: " + String.join(", ", suggestions), TextColor.CYAN);
+            }
         } else {
             displayRestaurantResults(results);
         }
@@ -125,9 +134,8 @@ public class CustomerMenu extends Menu {
                 FoodType selectedType = foodTypes[Integer.parseInt(choice) - 1];
 
                 // Filter restaurants by selected food type
-                List<Restaurant> filteredRestaurants = restaurantManager.getApprovedRestaurants().stream()
-                        .filter(r -> r.getFoodTypes().contains(selectedType))
-                        .collect(java.util.stream.Collectors.toCollection(ArrayList::new));
+                List<Restaurant> filteredRestaurants = restaurantManager.filterRestaurants(
+                        new RestaurantFilter().withFoodType(selectedType));
 
                 if (filteredRestaurants.isEmpty()) {
                     logger.print("No restaurants found in " + selectedType.getDisplayName() + " category.", TextColor.YELLOW);
@@ -918,7 +926,7 @@ public class CustomerMenu extends Menu {
             if (amount > 0) {
                 // simulate successful payment
 
-                customer.addToWallet(amount);
+                orderManager.topUpWallet(customer, amount);
                 logger.success("Wallet topped up successfully!");
                 logger.print("Added: " + amount + " Toman");
                 logger.print("New Balance: " + customer.getWallet() + " Toman", TextColor.GREEN);
@@ -1013,6 +1021,15 @@ public class CustomerMenu extends Menu {
         }
     }
 
+    private void markDelivered(Order order) {
+        Logger logger = Logger.getInstance();
+        if (orderManager.updateOrderStatus(order, ir.ac.kntu.models.enums.OrderStatus.DELIVERED)) {
+            logger.success("Order marked as delivered!");
+        } else {
+            logger.error("Order is already " + order.getStatus().getDisplayName() + ".");
+        }
+    }
+
     private void interactWithActiveOrder(Order order) {
         Logger logger = Logger.getInstance();
 
@@ -1031,8 +1048,7 @@ public class CustomerMenu extends Menu {
 
             String choice = inputManager.getLine();
             if (choice.equals("1")) {
-                orderManager.updateOrderStatus(order, ir.ac.kntu.models.enums.OrderStatus.DELIVERED);
-                logger.success("Order marked as delivered!");
+                markDelivered(order);
             } else if (choice.equals("2")) {
                 logger.print("\n" + order.getInvoice());
             }
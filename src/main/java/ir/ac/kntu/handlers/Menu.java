@@ -30,7 +30,7 @@ public abstract class Menu {
                 if (item.getActionAfterExecution() == MenuItemAction.BACK) {
                     return;
                 } else if (item.getActionAfterExecution() == MenuItemAction.EXIT) {
-                    System.exit(0);
+                    inputManager.exit();
                 }
             } else {
                 logger.print("Command is not valid, try again...");
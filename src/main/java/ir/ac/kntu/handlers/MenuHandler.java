@@ -7,9 +7,16 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Stack;
 
+/*
+ * MenuHandler
+ *
+ * Menu registry and navigation stack. Menus keep per-user state (the selected
+ * restaurant, for one), so every thread - the console, or one client connection -
+ * gets its own handler with its own menus and stack.
+ */
 public class MenuHandler {
 
-    private static MenuHandler instance;
+    private static final ThreadLocal<MenuHandler> INSTANCE = ThreadLocal.withInitial(MenuHandler::new);
     private final Map<MenuType, Menu> menus;
     private final Stack<MenuType> menuStack;
 
@@ -24,10 +31,12 @@ public class MenuHandler {
     }
 
     public static MenuHandler getInstance() {
-        if (instance == null) {
-            instance = new MenuHandler();
-        }
-        return instance;
+        return INSTANCE.get();
+    }
+
+    // Drops the calling thread's menus, e.g. when a client connection ends
+    public static void release() {
+        INSTANCE.remove();
     }
 
 
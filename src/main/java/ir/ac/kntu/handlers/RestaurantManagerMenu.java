@@ -5,11 +5,15 @@ import ir.ac.kntu.managers.*;
 import ir.ac.kntu.models.*;
 import ir.ac.kntu.models.enums.*;
 import ir.ac.kntu.utilities.HTMLReportGenerator;
+import ir.ac.kntu.utilities.Money;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class RestaurantManagerMenu extends Menu {
+    // How long "Process New Orders" waits for an order when none is queued
+    private static final long NEW_ORDER_WAIT_SECONDS = 5;
 
     private final InputManager inputManager = InputManager.getInstance();
     private final RestaurantManager restaurantManager = RestaurantManager.getInstance();
@@ -260,7 +264,7 @@ public class RestaurantManagerMenu extends Menu {
             logger.print("\n--- RESTAURANT MANAGEMENT ---", TextColor.GREEN);
             logger.print("Restaurant: " + currentRestaurant.getName(), TextColor.CYAN);
             logger.print("Rating: " + String.format("%.1f", currentRestaurant.getRating()), TextColor.YELLOW);
-            logger.print("Wallet: " + currentRestaurant.getWallet() + " Toman", TextColor.GREEN);
+            logger.print("Wallet: " + exactWallet() + " Toman", TextColor.GREEN);
             logger.print("");
             logger.print("1. Manage Menu", TextColor.CYAN);
             logger.print("2. Process Orders", TextColor.CYAN);
@@ -497,7 +501,7 @@ public class RestaurantManagerMenu extends Menu {
             logger.print("New name (leave empty to keep current): ");
             String newName = inputManager.getLine();
             if (!newName.trim().isEmpty()) {
-                food.setName(newName);
+                restaurantManager.renameFood(currentRestaurant, food, newName);
             }
 
             logger.print("Current price: " + food.getPrice());
@@ -511,7 +515,7 @@ public class RestaurantManagerMenu extends Menu {
             logger.print("Make available? (y/n, leave empty to keep current): ");
             String availInput = inputManager.getLine();
             if (!availInput.trim().isEmpty()) {
-                food.setAvailable(availInput.toLowerCase().startsWith("y"));
+                restaurantManager.setFoodAvailability(currentRestaurant, food, availInput.toLowerCase().startsWith("y"));
             }
 
             logger.success("Food item updated successfully!");
@@ -603,37 +607,73 @@ public class RestaurantManagerMenu extends Menu {
 
     private void processNewOrders() {
         Logger logger = Logger.getInstance();
-        List<Order> newOrders = orderManager.getNewOrdersByRestaurant(currentRestaurant);
+        Order order = nextNewOrder(0);
+        if (order == null) {
+            logger.print("Waiting for new orders...", TextColor.CYAN);
+            order = nextNewOrder(NEW_ORDER_WAIT_SECONDS);
+        }
 
-        if (newOrders.isEmpty()) {
+        if (order == null) {
             logger.print("No new orders.", TextColor.YELLOW);
             logger.print("Press Enter to continue...");
             inputManager.getLine();
             return;
         }
 
-        for (Order order : newOrders) {
-            logger.print("\n--- NEW ORDER #" + order.getId() + " ---", TextColor.GREEN);
-            logger.print(order.getInvoice());
+        // Every order taken goes back once this round is over, even if the session drops mid-way;
+        // putting back ignores the ones that were accepted or rejected
+        List<Order> taken = new ArrayList<>();
+        try {
+            while (order != null) {
+                taken.add(order);
+                handleNewOrder(order);
+                order = nextNewOrder(0);
+            }
+        } finally {
+            taken.forEach(orderManager::putBackNewOrder);
+        }
 
-            logger.print("Actions:", TextColor.CYAN);
-            logger.print("1. Accept Order", TextColor.GREEN);
-            logger.print("2. Reject Order", TextColor.RED);
-            logger.print("Choose: ");
+        logger.print("Press Enter to continue...");
+        inputManager.getLine();
+    }
 
-            String choice = inputManager.getLine();
+    private void handleNewOrder(Order order) {
+        Logger logger = Logger.getInstance();
+        logger.print("\n--- NEW ORDER #" + order.getId() + " ---", TextColor.GREEN);
+        logger.print(order.getInvoice());
 
-            if (choice.equals("1")) {
-                orderManager.updateOrderStatus(order, OrderStatus.PREPARING);
+        logger.print("Actions:", TextColor.CYAN);
+        logger.print("1. Accept Order", TextColor.GREEN);
+        logger.print("2. Reject Order", TextColor.RED);
+        logger.print("Choose: ");
+
+        String choice = inputManager.getLine();
+
+        if (choice.equals("1")) {
+            if (moveOrder(order, OrderStatus.PREPARING)) {
                 logger.success("Order accepted and moved to preparation!");
-            } else if (choice.equals("2")) {
-                orderManager.updateOrderStatus(order, OrderStatus.CANCELLED);
-                logger.print("Order rejected and customer refunded.", TextColor.YELLOW);
             }
+        } else if (choice.equals("2") && moveOrder(order, OrderStatus.CANCELLED)) {
+            logger.print("Order rejected and customer refunded.", TextColor.YELLOW);
         }
+    }
 
-        logger.print("Press Enter to continue...");
-        inputManager.getLine();
+    private Order nextNewOrder(long waitSeconds) {
+        try {
+            return orderManager.pollNewOrder(currentRestaurant, waitSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    // Another handler may have moved the order since it was listed
+    private boolean moveOrder(Order order, OrderStatus status) {
+        if (orderManager.updateOrderStatus(order, status)) {
+            return true;
+        }
+        Logger.getInstance().error("Order is already " + order.getStatus().getDisplayName() + ".");
+        return false;
     }
 
     private void viewActiveOrders() {
@@ -655,8 +695,7 @@ public class RestaurantManagerMenu extends Menu {
                     logger.print("Choose (or Enter to skip): ");
 
                     String choice = inputManager.getLine();
-                    if (choice.equals("1")) {
-                        orderManager.updateOrderStatus(order, OrderStatus.SENT);
+                    if (choice.equals("1") && moveOrder(order, OrderStatus.SENT)) {
                         logger.success("Order marked as sent!");
                     }
                 }
@@ -693,7 +732,9 @@ public class RestaurantManagerMenu extends Menu {
     private void handleWalletView() {
         Logger logger = Logger.getInstance();
         logger.print("\n--- RESTAURANT WALLET ---", TextColor.GREEN);
-        logger.print("Current Balance: " + currentRestaurant.getWallet() + " Toman", TextColor.YELLOW);
+        // Includes delivery credits that have not been settled into the wallet yet
+        double balance = exactWallet();
+        logger.print("Current Balance: " + balance + " Toman", TextColor.YELLOW);
 
         logger.print("\nWallet operations:", TextColor.CYAN);
         logger.print("1. Request Withdrawal", TextColor.CYAN);
@@ -705,7 +746,7 @@ public class RestaurantManagerMenu extends Menu {
             logger.print("Enter withdrawal amount: ");
             try {
                 double amount = Double.parseDouble(inputManager.getLine());
-                if (amount > 0 && amount <= currentRestaurant.getWallet()) {
+                if (amount > 0 && amount <= balance) {
                     // In a real system, this would create a withdrawal request
                     logger.success("Withdrawal request submitted for " + amount + " Toman!");
                     logger.print("Request will be processed by support team.", TextColor.CYAN);
@@ -721,6 +762,10 @@ public class RestaurantManagerMenu extends Menu {
         inputManager.getLine();
     }
 
+    private double exactWallet() {
+        return Money.toToman(SettlementEngine.getInstance().exactBalance(currentRestaurant));
+    }
+
     private void handleReportGeneration() {
         Logger logger = Logger.getInstance();
 
@@ -881,7 +926,7 @@ public class RestaurantManagerMenu extends Menu {
         logger.print("\nCurrent Zone Number: " + currentRestaurant.getZoneNumber());
 
         int newZone = getZoneNumber();
-        currentRestaurant.setZoneNumber(newZone);
+        restaurantManager.changeZone(currentRestaurant, newZone);
 
         logger.success("Zone number updated to " + newZone);
         logger.print("Press Enter to continue...");
@@ -2,12 +2,16 @@ package ir.ac.kntu.helper;
 
 import ir.ac.kntu.models.enums.TextColor;
 
+import java.io.PrintStream;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 
 public class Logger {
-    private static Logger instance;
+    // Volatile so getInstance() can skip the lock once the logger exists
+    private static volatile Logger instance;
     private final boolean isDebugMode;
+    // Output of the client connection served by this thread; the console when unset
+    private final ThreadLocal<PrintStream> connectionOutput = new ThreadLocal<>();
 
     
     private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
@@ -18,7 +22,7 @@ public class Logger {
     }
 
     
-    public static void initialize(boolean isDebugMode) {
+    public static synchronized void initialize(boolean isDebugMode) {
         if (instance == null) {
             instance = new Logger(isDebugMode);
         }
@@ -26,11 +30,17 @@ public class Logger {
 
     
     public static Logger getInstance() {
-        if (instance == null) {
-            instance = new Logger(true); 
-            System.err.println("WARNING: Logger not initialized! Defaulting to Debug Mode.");
+        Logger logger = instance;
+        if (logger != null) {
+            return logger;
+        }
+        synchronized (Logger.class) {
+            if (instance == null) {
+                instance = new Logger(true);
+                System.err.println("WARNING: Logger not initialized! Defaulting to Debug Mode.");
+            }
+            return instance;
         }
-        return instance;
     }
 
     
@@ -57,17 +67,30 @@ public class Logger {
 //        logInternal(color, "LOG", message);
 //    }
 
+    public void bindConnection(PrintStream output) {
+        connectionOutput.set(output);
+    }
+
+    public void unbindConnection() {
+        connectionOutput.remove();
+    }
+
     public void print(String message) {
-        System.out.println(message);
+        out().println(message);
     }
 
     public void print(String message, TextColor color) {
-        System.out.println(color + message + TextColor.RESET);
+        out().println(color + message + TextColor.RESET);
+    }
+
+    private PrintStream out() {
+        PrintStream output = connectionOutput.get();
+        return output == null ? System.out : output;
     }
 
     private void logInternal(TextColor color, String tag, String message) {
         String time = LocalTime.now().format(timeFormatter);
-        System.out.println(
+        out().println(
                 TextColor.WHITE + "[" + time + "] " +
                         color + "[" + tag + "]" +
                         TextColor.RESET + " :: " +
@@ -1,29 +1,81 @@
 package ir.ac.kntu.managers;
 
 import ir.ac.kntu.models.*;
+import ir.ac.kntu.models.enums.LedgerReason;
+import ir.ac.kntu.utilities.Money;
+
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/*
+ * CartManager
+ *
+ * One shopping cart per customer, held in a CartStore so idle carts are evicted
+ * and the number of live carts stays bounded. The no-argument methods act on the
+ * cart of whoever is logged in; without a logged-in user they share a guest cart.
+ *
+ * A checkout is one unit: the wallet is debited with a compare-and-set, the order
+ * is created, and the debit is refunded if the order could not be. Checkouts sent
+ * with an idempotency key are remembered, so a client retrying one gets the order
+ * it already placed instead of paying twice.
+ */
 public class CartManager {
-    private static CartManager instance;
-    private final ShoppingCart currentCart;
+    private static final String GUEST_CART = "guest";
+    // How many idempotency keys are remembered before the oldest are forgotten
+    private static final int MAX_REMEMBERED_CHECKOUTS = 10_000;
+
+    private final CartStore carts;
+    // A checkout in progress has an incomplete future; a failed one completes with null and is removed
+    private final Map<String, CompletableFuture<Order>> placedCheckouts;
+    private final Queue<String> placedCheckoutKeys;
 
     private CartManager() {
-        currentCart = new ShoppingCart();
+        carts = new CartStore();
+        placedCheckouts = new ConcurrentHashMap<>();
+        placedCheckoutKeys = new ConcurrentLinkedQueue<>();
+    }
+
+    private static final class Holder {
+        private static final CartManager INSTANCE = new CartManager();
     }
 
     public static CartManager getInstance() {
-        if (instance == null) {
-            instance = new CartManager();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
     public ShoppingCart getCurrentCart() {
-        return currentCart;
+        return carts.cartFor(currentOwner());
+    }
+
+    public ShoppingCart getCart(User customer) {
+        return carts.cartFor(ownerOf(customer));
+    }
+
+    public void configureCarts(int maxCarts, long maxIdleMillis, Path spillDirectory) {
+        carts.configure(maxCarts, maxIdleMillis, spillDirectory);
+    }
+
+    public int getLiveCartCount() {
+        return carts.size();
+    }
+
+    public int evictIdleCarts() {
+        return carts.sweep();
+    }
+
+    public void clearAllCarts() {
+        carts.clear();
     }
 
     public void addToCart(Restaurant restaurant, Food food, int quantity) {
+        ShoppingCart currentCart = getCurrentCart();
         // Check if cart belongs to same restaurant
         if (!currentCart.isEmpty() && !currentCart.getRestaurant().equals(restaurant)) {
             throw new IllegalArgumentException("Cannot add items from different restaurants. Current cart will be cleared.");
@@ -34,48 +86,144 @@ public class CartManager {
     }
 
     public void removeFromCart(OrderItem item) {
-        currentCart.removeItem(item);
+        getCurrentCart().removeItem(item);
     }
 
     public void changeQuantity(OrderItem item, int newQuantity) {
-        currentCart.changeQuantity(item, newQuantity);
+        getCurrentCart().changeQuantity(item, newQuantity);
     }
 
     public void clearCart() {
-        currentCart.clear();
+        getCurrentCart().clear();
     }
 
     public boolean canAddToCart(Restaurant restaurant) {
+        ShoppingCart currentCart = getCurrentCart();
         return !currentCart.isEmpty() && !currentCart.getRestaurant().equals(restaurant);
     }
 
     public Order checkout(Address deliveryAddress) {
-        if (currentCart.isEmpty()) {
-            throw new IllegalStateException("Cart is empty");
+        return checkout(deliveryAddress, null);
+    }
+
+    /**
+     * Checks out the logged-in customer's cart and starts them a fresh one. A retry with
+     * the same idempotency key returns the first order and leaves the current cart alone.
+     */
+    public Order checkout(Address deliveryAddress, String idempotencyKey) {
+        User user = SessionManager.getInstance().getCurrentUser();
+        Customer customer = (Customer) user;
+        String owner = ownerOf(user);
+        return rememberedCheckout(customer, idempotencyKey, () -> {
+            Order order = placeOrder(customer, carts.cartFor(owner), deliveryAddress);
+            // The cart is done with; the next one starts fresh
+            carts.discard(owner);
+            return order;
+        });
+    }
+
+    public Order checkout(Customer customer, ShoppingCart cart, Address deliveryAddress) {
+        return checkout(customer, cart, deliveryAddress, null);
+    }
+
+    /**
+     * Places the cart as an order for the customer and leaves the cart as it was. A null
+     * key places the order unconditionally.
+     */
+    public Order checkout(Customer customer, ShoppingCart cart, Address deliveryAddress, String idempotencyKey) {
+        return rememberedCheckout(customer, idempotencyKey, () -> placeOrder(customer, cart, deliveryAddress));
+    }
+
+    // The order placed under the key, or null if none has been placed (yet)
+    public Order findCheckout(User customer, String idempotencyKey) {
+        CompletableFuture<Order> placed = placedCheckouts.get(checkoutKey(customer, idempotencyKey));
+        return placed == null ? null : placed.getNow(null);
+    }
+
+    /*
+     * The first caller with a key claims it with a future and places the order outside
+     * the map, so the map is never locked across a checkout; retries of the same key wait
+     * on that future. If the placement fails the key is released and a waiting retry
+     * makes its own attempt.
+     */
+    private Order rememberedCheckout(Customer customer, String idempotencyKey, Supplier<Order> placement) {
+        if (idempotencyKey == null) {
+            return placement.get();
+        }
+        String key = checkoutKey(customer, idempotencyKey);
+        CompletableFuture<Order> claim = new CompletableFuture<>();
+        CompletableFuture<Order> existing = placedCheckouts.putIfAbsent(key, claim);
+        while (existing != null) {
+            Order placed = existing.join();
+            if (placed != null) {
+                return placed;
+            }
+            existing = placedCheckouts.putIfAbsent(key, claim);
         }
 
-        Customer customer = (Customer) SessionManager.getInstance().getCurrentUser();
-        Restaurant restaurant = currentCart.getRestaurant();
+        Order order = null;
+        try {
+            order = placement.get();
+        } finally {
+            if (order == null) {
+                placedCheckouts.remove(key, claim);
+            }
+            claim.complete(order);
+        }
+        placedCheckoutKeys.add(key);
+        forgetOldestCheckouts();
+        return order;
+    }
 
-        double deliveryCost = restaurant.getDeliveryCost(deliveryAddress.getZoneNumber());
+    private void forgetOldestCheckouts() {
+        while (placedCheckouts.size() > MAX_REMEMBERED_CHECKOUTS) {
+            String oldest = placedCheckoutKeys.poll();
+            if (oldest == null) {
+                break;
+            }
+            placedCheckouts.remove(oldest);
+        }
+    }
 
-        double totalAmount = currentCart.getTotal() + deliveryCost;
-        if (customer.getWallet() < totalAmount) {
-            throw new IllegalStateException("Insufficient wallet balance");
+    private static Order placeOrder(Customer customer, ShoppingCart cart, Address deliveryAddress) {
+        if (cart.isEmpty()) {
+            throw new IllegalStateException("Cart is empty");
         }
 
-        customer.setWallet(customer.getWallet() - totalAmount);
+        Restaurant restaurant = cart.getRestaurant();
+        double deliveryCost = restaurant.getDeliveryCost(deliveryAddress.getZoneNumber());
+        long totalAmount = Money.toMinor(cart.getTotal()) + Money.toMinor(deliveryCost);
 
         List<OrderItem> orderItems = new ArrayList<>();
-        for (OrderItem cartItem : currentCart.getItems()) {
+        for (OrderItem cartItem : cart.getItems()) {
             orderItems.add(new OrderItem(cartItem.getFood(), cartItem.getQuantity(), cartItem.getUnitPrice()));
         }
-        
-        Order order = OrderManager.getInstance().createOrder(
-            customer, restaurant, orderItems, deliveryCost, deliveryAddress);
 
-        clearCart();
+        Wallet wallet = customer.getWalletAccount();
+        if (!wallet.tryDebit(totalAmount, LedgerReason.CHECKOUT)) {
+            throw new IllegalStateException("Insufficient wallet balance");
+        }
+        Order order = null;
+        try {
+            order = OrderManager.getInstance().createOrder(customer, restaurant, orderItems, deliveryCost, deliveryAddress);
+            return order;
+        } finally {
+            if (order == null) {
+                // The order was never filed, so give the money back
+                wallet.credit(totalAmount, LedgerReason.CHECKOUT_ROLLBACK);
+            }
+        }
+    }
 
-        return order;
+    private static String checkoutKey(User customer, String idempotencyKey) {
+        return customer.getPhoneNumber() + ':' + idempotencyKey;
+    }
+
+    private static String currentOwner() {
+        return ownerOf(SessionManager.getInstance().getCurrentUser());
+    }
+
+    private static String ownerOf(User user) {
+        return user == null ? GUEST_CART : user.getPhoneNumber();
     }
 }
@@ -0,0 +1,251 @@
+package ir.ac.kntu.managers;
+
+import ir.ac.kntu.models.OrderItem;
+import ir.ac.kntu.models.Restaurant;
+import ir.ac.kntu.models.ShoppingCart;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/*
+ * CartStore
+ *
+ * Live shopping carts keyed by owner (one per customer or session). A cart that
+ * has not been touched for the idle limit is evicted by a sweep that piggybacks on
+ * normal traffic, and the total number of live carts is capped by evicting the
+ * least recently used ones. With a spill directory set, evicted carts that still
+ * hold items are written to disk and come back the next time their owner asks.
+ */
+public class CartStore {
+    public static final int DEFAULT_MAX_CARTS = 10_000;
+    public static final long DEFAULT_MAX_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final String SPILL_PREFIX = "cart-";
+    private static final String SPILL_SUFFIX = ".txt";
+
+    private final Map<String, Entry> carts;
+    private final LongSupplier clock;
+    private final AtomicLong lastSweep;
+    private volatile int maxCarts;
+    private volatile long maxIdleNanos;
+    private volatile Path spillDirectory;
+
+    public CartStore() {
+        this(DEFAULT_MAX_CARTS, DEFAULT_MAX_IDLE_MILLIS, null, System::nanoTime);
+    }
+
+    public CartStore(int maxCarts, long maxIdleMillis, Path spillDirectory, LongSupplier clock) {
+        this.carts = new ConcurrentHashMap<>();
+        this.clock = clock;
+        this.lastSweep = new AtomicLong(clock.getAsLong());
+        configure(maxCarts, maxIdleMillis, spillDirectory);
+    }
+
+    /**
+     * Sets the cart cap, the idle limit and where abandoned carts are spilled; a null
+     * directory drops them instead.
+     */
+    public final void configure(int maxCarts, long maxIdleMillis, Path spillDirectory) {
+        if (maxCarts <= 0) {
+            throw new IllegalArgumentException("Cart limit must be positive");
+        }
+        if (maxIdleMillis <= 0) {
+            throw new IllegalArgumentException("Idle limit must be positive");
+        }
+        this.maxCarts = maxCarts;
+        this.maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(maxIdleMillis);
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Returns the owner's cart, restoring a spilled one or creating an empty one if needed.
+     */
+    public ShoppingCart cartFor(String owner) {
+        long now = clock.getAsLong();
+        Entry entry = carts.get(owner);
+        if (entry == null) {
+            // Read the spill outside the map so no bin lock is held across disk I/O or the
+            // restaurant lock; the file only goes once our entry is the one installed
+            Entry restored = new Entry(restore(owner), now);
+            entry = carts.putIfAbsent(owner, restored);
+            if (entry == null) {
+                entry = restored;
+                deleteSpill(owner);
+            }
+        }
+        entry.lastAccess = now;
+
+        if (carts.size() > maxCarts) {
+            evictOverflow(owner);
+        }
+        long previous = lastSweep.get();
+        if (now - previous >= maxIdleNanos / 4 && lastSweep.compareAndSet(previous, now)) {
+            sweep();
+        }
+        return entry.cart;
+    }
+
+    public boolean contains(String owner) {
+        return carts.containsKey(owner);
+    }
+
+    public void discard(String owner) {
+        carts.remove(owner);
+        deleteSpill(owner);
+    }
+
+    public int size() {
+        return carts.size();
+    }
+
+    /**
+     * Evicts every cart idle for longer than the limit and returns how many went.
+     */
+    public int sweep() {
+        long now = clock.getAsLong();
+        int evicted = 0;
+        for (Map.Entry<String, Entry> mapEntry : carts.entrySet()) {
+            if (now - mapEntry.getValue().lastAccess > maxIdleNanos && evict(mapEntry.getKey(), mapEntry.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    // Drops every live cart and every spilled one
+    public void clear() {
+        carts.clear();
+        Path directory = spillDirectory;
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SPILL_PREFIX + "*" + SPILL_SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not clear spilled carts: " + e.getMessage());
+        }
+    }
+
+    private void evictOverflow(String keep) {
+        // Trim a little below the cap so a burst of new carts does not sort on every insert
+        int target = maxCarts - Math.max(1, maxCarts / 16);
+        List<Map.Entry<String, Entry>> oldestFirst = new ArrayList<>(carts.entrySet());
+        oldestFirst.sort(Comparator.comparingLong(mapEntry -> mapEntry.getValue().lastAccess));
+        for (Map.Entry<String, Entry> mapEntry : oldestFirst) {
+            if (carts.size() <= target) {
+                return;
+            }
+            if (!mapEntry.getKey().equals(keep)) {
+                evict(mapEntry.getKey(), mapEntry.getValue());
+            }
+        }
+    }
+
+    private boolean evict(String owner, Entry entry) {
+        if (!carts.remove(owner, entry)) {
+            return false;
+        }
+        if (!entry.cart.isEmpty()) {
+            spill(owner, entry.cart);
+        }
+        return true;
+    }
+
+    private void spill(String owner, ShoppingCart cart) {
+        Path file = spillFile(owner);
+        if (file == null) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add(String.valueOf(cart.getRestaurant().getId()));
+        for (OrderItem item : cart.getItems()) {
+            lines.add(item.getFood().getId() + "," + item.getQuantity());
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Could not spill cart of " + owner + ": " + e.getMessage());
+        }
+    }
+
+    // Items whose restaurant or food no longer exists, or is unavailable, are left out
+    private ShoppingCart restore(String owner) {
+        ShoppingCart cart = new ShoppingCart();
+        Path file = spillFile(owner);
+        if (file == null || !Files.exists(file)) {
+            return cart;
+        }
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            Restaurant restaurant = lines.isEmpty() ? null
+                    : RestaurantManager.getInstance().findRestaurantById(Integer.parseInt(lines.get(0).trim()));
+            if (restaurant != null) {
+                cart.setRestaurant(restaurant);
+                restoreItems(cart, restaurant, lines.subList(1, lines.size()));
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Could not restore cart of " + owner + ": " + e.getMessage());
+        }
+        if (cart.isEmpty()) {
+            cart.clear();
+        }
+        return cart;
+    }
+
+    private static void restoreItems(ShoppingCart cart, Restaurant restaurant, List<String> lines) {
+        for (String line : lines) {
+            String[] parts = line.split(",");
+            if (parts.length == 2) {
+                int foodId = Integer.parseInt(parts[0].trim());
+                int quantity = Integer.parseInt(parts[1].trim());
+                restaurant.getMenu().stream()
+                        .filter(food -> food.getId() == foodId && food.isAvailable())
+                        .findFirst()
+                        .ifPresent(food -> cart.addItem(food, quantity));
+            }
+        }
+    }
+
+    private void deleteSpill(String owner) {
+        Path file = spillFile(owner);
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Could not delete spilled cart of " + owner + ": " + e.getMessage());
+        }
+    }
+
+    private Path spillFile(String owner) {
+        Path directory = spillDirectory;
+        if (directory == null) {
+            return null;
+        }
+        return directory.resolve(SPILL_PREFIX + owner.replaceAll("[^A-Za-z0-9_-]", "_") + SPILL_SUFFIX);
+    }
+
+    private static final class Entry {
+        private final ShoppingCart cart;
+        private volatile long lastAccess;
+
+        private Entry(ShoppingCart cart, long lastAccess) {
+            this.cart = cart;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
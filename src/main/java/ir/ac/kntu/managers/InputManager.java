@@ -1,30 +1,73 @@
 package ir.ac.kntu.managers;
 
 import ir.ac.kntu.helper.Logger;
+import ir.ac.kntu.models.errors.ConnectionClosedError;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
+/*
+ * InputManager
+ *
+ * Reads menu input from the console, or from the client connection bound to the
+ * calling thread when the menus are served over the network. A closed or exited
+ * connection unwinds the menus with ConnectionClosedError instead of ending the JVM.
+ */
 public class InputManager {
     private final Logger logger = Logger.getInstance();
     private static final InputManager INSTANCE = new InputManager();
     private final Scanner scanner;
+    private final ThreadLocal<Scanner> connectionInput;
+
     private InputManager() {
         this.scanner = new Scanner(System.in);
+        this.connectionInput = new ThreadLocal<>();
     }
 
     public static InputManager getInstance() {
         return INSTANCE;
     }
 
+    public void bindConnection(InputStream input) {
+        connectionInput.set(new Scanner(input, StandardCharsets.UTF_8));
+    }
+
+    public void unbindConnection() {
+        connectionInput.remove();
+    }
+
     public String getLine() {
+        if (connectionInput.get() != null) {
+            return readConnectionLine();
+        }
         if (scanner.hasNextLine()) {
             return scanner.nextLine();
         }
         return "";
     }
 
+    private String readConnectionLine() {
+        if (connectionInput.get().hasNextLine()) {
+            return connectionInput.get().nextLine();
+        }
+        throw new ConnectionClosedError("Client disconnected");
+    }
+
     public void pressEnterToContinue() {
         logger.print("Press Enter to continue...");
-        scanner.nextLine();
+        if (connectionInput.get() != null) {
+            getLine();
+        } else {
+            scanner.nextLine();
+        }
+    }
+
+    // Ends the console application, or just the session of a connected client
+    public void exit() {
+        if (connectionInput.get() != null) {
+            throw new ConnectionClosedError("Client exited");
+        }
+        System.exit(0);
     }
-}
\ No newline at end of file
+}
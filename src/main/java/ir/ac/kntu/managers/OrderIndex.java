@@ -0,0 +1,131 @@
+package ir.ac.kntu.managers;
+
+import ir.ac.kntu.models.Order;
+import ir.ac.kntu.models.Restaurant;
+import ir.ac.kntu.models.User;
+import ir.ac.kntu.models.enums.OrderStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * OrderIndex
+ *
+ * Secondary indexes for OrderManager: orders per customer, per restaurant and per
+ * (restaurant, status). Each order is filed under the status it was indexed with, so
+ * a status change moves it between sets without scanning. Query results are
+ * returned in order ID order, matching a scan of the global order list, and are
+ * always copies. Adding orders and the customer and restaurant lists synchronize on
+ * the index; the status sets of each restaurant have their own lock, so status
+ * changes at different restaurants never wait for each other.
+ */
+public class OrderIndex {
+    private static final Comparator<Order> BY_ID = Comparator.comparingInt(Order::getId);
+
+    private final Map<User, List<Order>> byCustomer;
+    private final Map<Restaurant, List<Order>> byRestaurant;
+    private final Map<Restaurant, StatusSets> byRestaurantStatus;
+    private final Set<Order> indexed;
+
+    public OrderIndex() {
+        byCustomer = new HashMap<>();
+        byRestaurant = new HashMap<>();
+        byRestaurantStatus = new ConcurrentHashMap<>();
+        indexed = ConcurrentHashMap.newKeySet();
+    }
+
+    public synchronized void add(Order order) {
+        if (!indexed.add(order)) {
+            statusChanged(order);
+            return;
+        }
+        byCustomer.computeIfAbsent(order.getCustomer(), key -> new ArrayList<>()).add(order);
+        byRestaurant.computeIfAbsent(order.getRestaurant(), key -> new ArrayList<>()).add(order);
+        statusSets(order.getRestaurant()).add(order);
+    }
+
+    /**
+     * Moves the order to the set of its current status.
+     */
+    public void statusChanged(Order order) {
+        StatusSets sets = byRestaurantStatus.get(order.getRestaurant());
+        if (sets != null) {
+            sets.moveToCurrent(order);
+        }
+    }
+
+    public boolean contains(Order order) {
+        return indexed.contains(order);
+    }
+
+    public synchronized List<Order> byCustomer(User customer) {
+        return sortedCopy(byCustomer.getOrDefault(customer, new ArrayList<>()));
+    }
+
+    public synchronized List<Order> byRestaurant(Restaurant restaurant) {
+        return sortedCopy(byRestaurant.getOrDefault(restaurant, new ArrayList<>()));
+    }
+
+    public List<Order> byRestaurantAndStatus(Restaurant restaurant, Collection<OrderStatus> statuses) {
+        StatusSets sets = byRestaurantStatus.get(restaurant);
+        List<Order> result = sets == null ? new ArrayList<>() : sets.copyOf(statuses);
+        result.sort(BY_ID);
+        return result;
+    }
+
+    private StatusSets statusSets(Restaurant restaurant) {
+        return byRestaurantStatus.computeIfAbsent(restaurant, key -> new StatusSets());
+    }
+
+    private static List<Order> sortedCopy(List<Order> orders) {
+        List<Order> result = new ArrayList<>(orders);
+        result.sort(BY_ID);
+        return result;
+    }
+
+    // One restaurant's orders by status, guarded by its own monitor
+    private static final class StatusSets {
+        private final Map<OrderStatus, Set<Order>> byStatus = new EnumMap<>(OrderStatus.class);
+        private final Map<Order, OrderStatus> indexedStatus = new HashMap<>();
+
+        private synchronized void add(Order order) {
+            indexedStatus.put(order, order.getStatus());
+            setOf(order.getStatus()).add(order);
+        }
+
+        // Racing changes may arrive out of order; each one files the order under its latest status
+        private synchronized void moveToCurrent(Order order) {
+            OrderStatus previous = indexedStatus.get(order);
+            OrderStatus current = order.getStatus();
+            if (previous == null || previous == current) {
+                return;
+            }
+            setOf(previous).remove(order);
+            setOf(current).add(order);
+            indexedStatus.put(order, current);
+        }
+
+        private synchronized List<Order> copyOf(Collection<OrderStatus> statuses) {
+            List<Order> result = new ArrayList<>();
+            for (OrderStatus status : statuses) {
+                Set<Order> orders = byStatus.get(status);
+                if (orders != null) {
+                    result.addAll(orders);
+                }
+            }
+            return result;
+        }
+
+        private Set<Order> setOf(OrderStatus status) {
+            return byStatus.computeIfAbsent(status, key -> new LinkedHashSet<>());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ir.ac.kntu.managers;
+
+import ir.ac.kntu.models.Order;
+import ir.ac.kntu.models.enums.OrderStatus;
+
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/*
+ * OrderIntake
+ *
+ * One restaurant's new orders, pushed as they are placed so the kitchen can wait
+ * for work instead of searching for it. An order takes a slot when it is placed and
+ * gives it back once it leaves REGISTERED; with every slot taken, new orders are
+ * refused, which is the backpressure a swamped kitchen pushes back with. Only orders
+ * holding a slot are queued, and an order leaves the queue when it gives its slot
+ * back, so the queue never outgrows the slots even when no kitchen is polling; it is
+ * also created with a fixed capacity as a hard limit.
+ */
+public class OrderIntake {
+    private final BlockingQueue<Order> queue;
+    private final Set<Order> holdingSlots;
+    private final AtomicInteger usedSlots;
+    private final IntSupplier capacity;
+
+    public OrderIntake(IntSupplier capacity, int maxQueued) {
+        this.queue = new LinkedBlockingQueue<>(maxQueued);
+        this.holdingSlots = ConcurrentHashMap.newKeySet();
+        this.usedSlots = new AtomicInteger();
+        this.capacity = capacity;
+    }
+
+    /**
+     * Takes a slot for an order about to be placed; false when the intake is full.
+     */
+    public boolean reserve() {
+        int used;
+        do {
+            used = usedSlots.get();
+            if (used >= capacity.getAsInt()) {
+                return false;
+            }
+        } while (!usedSlots.compareAndSet(used, used + 1));
+        return true;
+    }
+
+    // Queues an order placed with a reserved slot
+    public void publish(Order order) {
+        holdingSlots.add(order);
+        queue.add(order);
+    }
+
+    /**
+     * Queues a restored order if a slot is free. Restored data is never refused, so an
+     * order beyond the capacity is still kept by OrderManager, just not queued.
+     */
+    public void restore(Order order) {
+        if (reserve()) {
+            publish(order);
+        }
+    }
+
+    // Frees the order's slot and takes it out of the queue if it is still waiting there
+    public void release(Order order) {
+        if (holdingSlots.remove(order)) {
+            queue.remove(order);
+            usedSlots.decrementAndGet();
+        }
+    }
+
+    /**
+     * Waits up to the timeout for an order that is still new, or returns null.
+     */
+    public Order poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            Order order = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (order == null || order.getStatus() == OrderStatus.REGISTERED) {
+                return order;
+            }
+        }
+    }
+
+    public Order take() throws InterruptedException {
+        while (true) {
+            Order order = queue.take();
+            if (order.getStatus() == OrderStatus.REGISTERED) {
+                return order;
+            }
+        }
+    }
+
+    // Puts back an order that was taken but not handled, behind the ones already waiting
+    public void putBack(Order order) {
+        if (order.getStatus() == OrderStatus.REGISTERED && holdingSlots.contains(order)) {
+            queue.offer(order);
+        }
+    }
+
+    public int getUsedSlots() {
+        return usedSlots.get();
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+}
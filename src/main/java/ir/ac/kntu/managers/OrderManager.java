@@ -1,93 +1,258 @@
 package ir.ac.kntu.managers;
 
+import ir.ac.kntu.events.EventBus;
+import ir.ac.kntu.events.OrderPlaced;
+import ir.ac.kntu.events.Reviewed;
+import ir.ac.kntu.events.StatusChanged;
 import ir.ac.kntu.models.*;
+import ir.ac.kntu.models.enums.LedgerReason;
 import ir.ac.kntu.models.enums.OrderStatus;
+import ir.ac.kntu.utilities.Money;
+import ir.ac.kntu.utilities.StripedLocks;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/*
+ * OrderManager
+ *
+ * Owns every order. New orders get their IDs and are filed under the order
+ * index's monitor, and a review is recorded with its rating under the restaurant's
+ * stripe; nothing else here locks. Wallet movements and status changes are
+ * compare-and-set updates, and delivery credits go through the SettlementEngine.
+ * New orders are pushed to a bounded OrderIntake per
+ * restaurant, which kitchens wait on instead of searching for work. Placements,
+ * status changes and reviews are published on the EventBus once they have happened.
+ */
 public class OrderManager {
-    private static OrderManager instance;
+    public static final int DEFAULT_INTAKE_CAPACITY = 100;
+    public static final int MAX_INTAKE_CAPACITY = 10_000;
+    private static final Set<OrderStatus> ACTIVE_STATUSES =
+            EnumSet.of(OrderStatus.REGISTERED, OrderStatus.PREPARING, OrderStatus.SENT);
+    private static final Set<OrderStatus> NEW_STATUSES = EnumSet.of(OrderStatus.REGISTERED);
+
     private final List<Order> orders;
+    private final OrderIndex orderIndex;
+    private final Map<Integer, Order> ordersById;
+    // Last ID handed out; never moves backwards, even when older orders are restored
+    private final AtomicInteger lastOrderId;
+    private final StripedLocks restaurantLocks;
+    private final Map<Restaurant, OrderIntake> intakes;
+    private volatile int intakeCapacity;
+    private final EventBus events;
 
     private OrderManager() {
-        orders = new ArrayList<>();
+        orders = Collections.synchronizedList(new ArrayList<>());
+        orderIndex = new OrderIndex();
+        ordersById = new ConcurrentHashMap<>();
+        lastOrderId = new AtomicInteger();
+        restaurantLocks = new StripedLocks();
+        intakes = new ConcurrentHashMap<>();
+        intakeCapacity = DEFAULT_INTAKE_CAPACITY;
+        events = EventBus.getInstance();
+    }
+
+    private static final class Holder {
+        private static final OrderManager INSTANCE = new OrderManager();
     }
 
     public static OrderManager getInstance() {
-        if (instance == null) {
-            instance = new OrderManager();
-        }
-        return instance;
+        return Holder.INSTANCE;
+    }
+
+    public void topUpWallet(Customer customer, double amount) {
+        customer.getWalletAccount().credit(Money.toMinor(amount), LedgerReason.TOP_UP);
     }
 
+    /**
+     * Places a new order and pushes it to the restaurant's intake. Throws
+     * IllegalStateException when the restaurant already has as many new orders waiting
+     * as its intake holds.
+     */
     public Order createOrder(User customer, Restaurant restaurant, List<OrderItem> items,
                              double deliveryCost, Address deliveryAddress) {
+        OrderIntake intake = intakeFor(restaurant);
+        if (!intake.reserve()) {
+            throw new IllegalStateException("The restaurant is not taking more orders right now");
+        }
         Order order = new Order(customer, restaurant, items, deliveryCost, deliveryAddress);
-        order.setId(orders.size() + 1);
-        orders.add(order);
+        // IDs are taken and filed under one lock so the order list stays in ID order
+        synchronized (orderIndex) {
+            order.setId(lastOrderId.incrementAndGet());
+            ordersById.put(order.getId(), order);
+            orders.add(order);
+            orderIndex.add(order);
+        }
+        intake.publish(order);
+        if (events.hasSubscribers()) {
+            events.publish(new OrderPlaced(order));
+        }
         return order;
     }
 
-//    public Order findOrderById(int id) {
-//        return orders.stream()
-//                .filter(o -> o.getId() == id)
-//                .findFirst()
-//                .orElse(null);
-//    }
+    /**
+     * Waits up to the timeout for a new order at the restaurant and returns it, or null
+     * if none came. Each order is handed to one caller; put it back if it is not handled.
+     */
+    public Order pollNewOrder(Restaurant restaurant, long timeout, TimeUnit unit) throws InterruptedException {
+        return intakeFor(restaurant).poll(timeout, unit);
+    }
+
+    public Order takeNewOrder(Restaurant restaurant) throws InterruptedException {
+        return intakeFor(restaurant).take();
+    }
+
+    public void putBackNewOrder(Order order) {
+        intakeFor(order.getRestaurant()).putBack(order);
+    }
+
+    public int getWaitingOrderCount(Restaurant restaurant) {
+        return intakeFor(restaurant).getUsedSlots();
+    }
+
+    // New orders queued for the kitchen; taken orders still hold a slot but are not counted
+    public int getQueuedOrderCount(Restaurant restaurant) {
+        return intakeFor(restaurant).getQueuedCount();
+    }
+
+    // How many new orders a restaurant may have waiting before further orders are refused
+    public void setIntakeCapacity(int capacity) {
+        if (capacity <= 0 || capacity > MAX_INTAKE_CAPACITY) {
+            throw new IllegalArgumentException("Intake capacity must be between 1 and " + MAX_INTAKE_CAPACITY);
+        }
+        intakeCapacity = capacity;
+    }
+
+    public int getIntakeCapacity() {
+        return intakeCapacity;
+    }
+
+    private OrderIntake intakeFor(Restaurant restaurant) {
+        return intakes.computeIfAbsent(restaurant, key -> new OrderIntake(() -> intakeCapacity, MAX_INTAKE_CAPACITY));
+    }
+
+    /**
+     * Registers an order that already has its ID and status, e.g. one loaded from saved data.
+     * Restoring an order again re-files it under its current status; an order whose ID
+     * already belongs to a different order is refused with IllegalArgumentException.
+     */
+    public void restoreOrder(Order order) {
+        boolean added = false;
+        synchronized (orderIndex) {
+            if (!orderIndex.contains(order)) {
+                if (order.getId() > 0 && ordersById.containsKey(order.getId())) {
+                    throw new IllegalArgumentException("Order ID " + order.getId() + " is already taken by another order");
+                }
+                added = true;
+                if (order.getId() <= 0) {
+                    order.setId(lastOrderId.incrementAndGet());
+                } else {
+                    lastOrderId.accumulateAndGet(order.getId(), Math::max);
+                }
+                ordersById.put(order.getId(), order);
+                orders.add(order);
+            }
+            orderIndex.add(order);
+        }
+        if (added && order.getStatus() == OrderStatus.REGISTERED) {
+            intakeFor(order.getRestaurant()).restore(order);
+        }
+    }
+
+    public Order findOrderById(int id) {
+        return ordersById.get(id);
+    }
+
+    // Unknown IDs are skipped; the rest come back in the order they were asked for
+    public List<Order> findOrdersByIds(Collection<Integer> ids) {
+        List<Order> result = new ArrayList<>();
+        for (Integer id : ids) {
+            Order order = ordersById.get(id);
+            if (order != null) {
+                result.add(order);
+            }
+        }
+        return result;
+    }
 
     public List<Order> getOrdersByCustomer(User customer) {
-        return orders.stream()
-                .filter(o -> o.getCustomer().equals(customer))
-                .collect(Collectors.toList());
+        return orderIndex.byCustomer(customer);
     }
 
     public List<Order> getOrdersByRestaurant(Restaurant restaurant) {
-        return orders.stream()
-                .filter(o -> o.getRestaurant().equals(restaurant))
-                .collect(Collectors.toList());
+        return orderIndex.byRestaurant(restaurant);
     }
 
     public List<Order> getActiveOrdersByRestaurant(Restaurant restaurant) {
-        return orders.stream()
-                .filter(o -> o.getRestaurant().equals(restaurant))
-                .filter(o -> o.getStatus() != OrderStatus.DELIVERED && o.getStatus() != OrderStatus.CANCELLED)
-                .collect(Collectors.toList());
+        return orderIndex.byRestaurantAndStatus(restaurant, ACTIVE_STATUSES);
     }
 
     public List<Order> getNewOrdersByRestaurant(Restaurant restaurant) {
-        return orders.stream()
-                .filter(o -> o.getRestaurant().equals(restaurant))
-                .filter(o -> o.getStatus() == OrderStatus.REGISTERED)
-                .collect(Collectors.toList());
+        return orderIndex.byRestaurantAndStatus(restaurant, NEW_STATUSES);
     }
 
-    public void updateOrderStatus(Order order, OrderStatus newStatus) {
-        OrderStatus oldStatus = order.getStatus();
-        order.setStatus(newStatus);
+    /**
+     * Moves the order to the new status if the transition table allows it from the status
+     * the order is in. The change is a compare-and-set on the order, so when handlers race
+     * only one of them wins and only the winner refunds or credits. Returns whether the
+     * order moved.
+     */
+    public boolean updateOrderStatus(Order order, OrderStatus newStatus) {
+        OrderStatus oldStatus;
+        do {
+            oldStatus = order.getStatus();
+            if (!oldStatus.canMoveTo(newStatus)) {
+                return false;
+            }
+        } while (!order.compareAndSetStatus(oldStatus, newStatus));
+        orderIndex.statusChanged(order);
+        if (oldStatus == OrderStatus.REGISTERED) {
+            // The kitchen has dealt with it, so its intake slot is free again
+            intakeFor(order.getRestaurant()).release(order);
+        }
 
-        if (newStatus == OrderStatus.CANCELLED && oldStatus == OrderStatus.REGISTERED) {
+        if (newStatus == OrderStatus.CANCELLED) {
             // Refund customer
             Customer customer = (Customer) order.getCustomer();
-            customer.setWallet(customer.getWallet() + order.getFinalAmount());
+            customer.getWalletAccount().credit(Money.toMinor(order.getFinalAmount()), LedgerReason.REFUND);
         } else if (newStatus == OrderStatus.DELIVERED) {
-            // Credit restaurant wallet
-            Restaurant restaurant = order.getRestaurant();
-            restaurant.setWallet(restaurant.getWallet() + order.getFinalAmount());
+            // Credit restaurant wallet; settled in batches so busy restaurants do not contend
+            SettlementEngine.getInstance().accrue(order.getRestaurant(), Money.toMinor(order.getFinalAmount()));
         }
+        if (events.hasSubscribers()) {
+            events.publish(new StatusChanged(order, oldStatus, newStatus));
+        }
+        return true;
     }
 
     public void addOrderReview(Order order, int rating, String comment) {
-        if (order.getStatus() == OrderStatus.DELIVERED) {
+        boolean reviewed = restaurantLocks.withLock(order.getRestaurant(), () -> {
+            if (order.getStatus() != OrderStatus.DELIVERED) {
+                return false;
+            }
             order.setReviewRating(rating);
             order.setReviewComment(comment);
 
-            order.getRestaurant().addRating(rating);
+            RestaurantManager.getInstance().addRating(order.getRestaurant(), rating);
+            return true;
+        });
+        // Published outside the stripe so a blocking subscriber cannot hold it
+        if (reviewed && events.hasSubscribers()) {
+            events.publish(new Reviewed(order, rating, comment));
         }
     }
 
     public List<Order> getAllOrders() {
-        return new ArrayList<>(orders);
+        synchronized (orders) {
+            return new ArrayList<>(orders);
+        }
     }
 }
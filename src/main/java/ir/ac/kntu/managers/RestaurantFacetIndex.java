@@ -0,0 +1,148 @@
+package ir.ac.kntu.managers;
+
+import ir.ac.kntu.models.Restaurant;
+import ir.ac.kntu.models.enums.FoodType;
+import ir.ac.kntu.models.enums.RestaurantStatus;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * RestaurantFacetIndex
+ *
+ * Gives every restaurant a dense ordinal and keeps one BitSet per food type,
+ * status, zone and whole-star rating bucket. A filter is answered with bitwise
+ * OR inside a facet and AND across facets, and can be intersected with any set
+ * of restaurants (e.g. text-search results) through ordinalsOf.
+ */
+public class RestaurantFacetIndex {
+    public static final int MAX_ZONE = 22;
+    public static final int MAX_RATING = 5;
+
+    private final List<Restaurant> restaurants;
+    private final Map<Restaurant, Integer> ordinals;
+    private final Map<FoodType, BitSet> byFoodType;
+    private final Map<RestaurantStatus, BitSet> byStatus;
+    private final BitSet[] byZone;
+    private final BitSet[] byRating;
+
+    public RestaurantFacetIndex() {
+        restaurants = new ArrayList<>();
+        ordinals = new HashMap<>();
+        byFoodType = new EnumMap<>(FoodType.class);
+        byStatus = new EnumMap<>(RestaurantStatus.class);
+        byZone = new BitSet[MAX_ZONE + 1];
+        byRating = new BitSet[MAX_RATING + 1];
+
+        for (FoodType foodType : FoodType.values()) {
+            byFoodType.put(foodType, new BitSet());
+        }
+        for (RestaurantStatus status : RestaurantStatus.values()) {
+            byStatus.put(status, new BitSet());
+        }
+        for (int i = 0; i < byZone.length; i++) {
+            byZone[i] = new BitSet();
+        }
+        for (int i = 0; i < byRating.length; i++) {
+            byRating[i] = new BitSet();
+        }
+    }
+
+    /**
+     * Adds the restaurant or re-reads its facet values after a change.
+     */
+    public void update(Restaurant restaurant) {
+        Integer ordinal = ordinals.get(restaurant);
+        if (ordinal == null) {
+            ordinal = restaurants.size();
+            restaurants.add(restaurant);
+            ordinals.put(restaurant, ordinal);
+        } else {
+            clearOrdinal(ordinal);
+        }
+
+        for (FoodType foodType : restaurant.getFoodTypes()) {
+            byFoodType.get(foodType).set(ordinal);
+        }
+        byStatus.get(restaurant.getStatus()).set(ordinal);
+        int zone = restaurant.getZoneNumber();
+        if (zone >= 0 && zone <= MAX_ZONE) {
+            byZone[zone].set(ordinal);
+        }
+        byRating[ratingBucket(restaurant.getRating())].set(ordinal);
+    }
+
+    public BitSet matching(RestaurantFilter filter) {
+        BitSet result = (BitSet) byStatus.get(filter.getStatus()).clone();
+
+        if (!filter.getFoodTypes().isEmpty()) {
+            BitSet anyType = new BitSet();
+            filter.getFoodTypes().forEach(foodType -> anyType.or(byFoodType.get(foodType)));
+            result.and(anyType);
+        }
+
+        if (!filter.getZones().isEmpty()) {
+            BitSet anyZone = new BitSet();
+            for (int zone : filter.getZones()) {
+                if (zone >= 0 && zone <= MAX_ZONE) {
+                    anyZone.or(byZone[zone]);
+                }
+            }
+            result.and(anyZone);
+        }
+
+        if (filter.getMinRating() > 0) {
+            BitSet rated = new BitSet();
+            for (int bucket = Math.min(filter.getMinRating(), MAX_RATING); bucket <= MAX_RATING; bucket++) {
+                rated.or(byRating[bucket]);
+            }
+            result.and(rated);
+        }
+        return result;
+    }
+
+    public BitSet ordinalsOf(Collection<Restaurant> selection) {
+        BitSet result = new BitSet();
+        for (Restaurant restaurant : selection) {
+            Integer ordinal = ordinals.get(restaurant);
+            if (ordinal != null) {
+                result.set(ordinal);
+            }
+        }
+        return result;
+    }
+
+    public boolean contains(Restaurant restaurant, BitSet bits) {
+        Integer ordinal = ordinals.get(restaurant);
+        return ordinal != null && bits.get(ordinal);
+    }
+
+    // Restaurants in ordinal (registration) order
+    public List<Restaurant> resolve(BitSet bits) {
+        List<Restaurant> result = new ArrayList<>(bits.cardinality());
+        for (int ordinal = bits.nextSetBit(0); ordinal >= 0; ordinal = bits.nextSetBit(ordinal + 1)) {
+            result.add(restaurants.get(ordinal));
+        }
+        return result;
+    }
+
+    private void clearOrdinal(int ordinal) {
+        byFoodType.values().forEach(bits -> bits.clear(ordinal));
+        byStatus.values().forEach(bits -> bits.clear(ordinal));
+        for (BitSet bits : byZone) {
+            bits.clear(ordinal);
+        }
+        for (BitSet bits : byRating) {
+            bits.clear(ordinal);
+        }
+    }
+
+    private static int ratingBucket(double rating) {
+        return Math.max(0, Math.min(MAX_RATING, (int) Math.floor(rating)));
+    }
+}
@@ -0,0 +1,67 @@
+package ir.ac.kntu.managers;
+
+import ir.ac.kntu.models.enums.FoodType;
+import ir.ac.kntu.models.enums.RestaurantStatus;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/*
+ * RestaurantFilter
+ *
+ * Facet selection for RestaurantFacetIndex. Values inside one facet are OR-ed
+ * (any of the chosen food types or zones), the facets themselves are AND-ed.
+ * An empty facet does not restrict the result. Only approved restaurants match
+ * unless another status is chosen.
+ */
+public class RestaurantFilter {
+    private final Set<FoodType> foodTypes;
+    private final Set<Integer> zones;
+    private RestaurantStatus status;
+    private int minRating;
+
+    public RestaurantFilter() {
+        this.foodTypes = EnumSet.noneOf(FoodType.class);
+        this.zones = new TreeSet<>();
+        this.status = RestaurantStatus.APPROVED;
+        this.minRating = 0;
+    }
+
+    public RestaurantFilter withFoodType(FoodType foodType) {
+        foodTypes.add(foodType);
+        return this;
+    }
+
+    public RestaurantFilter inZone(int zone) {
+        zones.add(zone);
+        return this;
+    }
+
+    public RestaurantFilter withStatus(RestaurantStatus status) {
+        this.status = status;
+        return this;
+    }
+
+    // Whole stars: 4 keeps restaurants rated 4.0 and above
+    public RestaurantFilter withMinRating(int minRating) {
+        this.minRating = minRating;
+        return this;
+    }
+
+    public Set<FoodType> getFoodTypes() {
+        return foodTypes;
+    }
+
+    public Set<Integer> getZones() {
+        return zones;
+    }
+
+    public RestaurantStatus getStatus() {
+        return status;
+    }
+
+    public int getMinRating() {
+        return minRating;
+    }
+}
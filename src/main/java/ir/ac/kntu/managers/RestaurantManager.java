@@ -5,65 +5,162 @@ import ir.ac.kntu.models.Food;
 import ir.ac.kntu.models.Manager;
 import ir.ac.kntu.models.enums.FoodType;
 import ir.ac.kntu.models.enums.RestaurantStatus;
+import ir.ac.kntu.utilities.NormalizedText;
+import ir.ac.kntu.utilities.QueryCache;
 import ir.ac.kntu.utilities.TextSimilarity;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/*
+ * RestaurantManager
+ *
+ * Restaurant catalogue and its search structures. Every change goes through the
+ * catalogue write lock and every query through the read lock, so the list, the
+ * manager/status indexes, the search index and the facet index are always seen
+ * in step. Searches run concurrently; writers wait for them to finish. Lookups by
+ * ID skip the lock: restaurants are only ever added, so the concurrent ID map
+ * answers them directly.
+ */
 public class RestaurantManager {
-    private static RestaurantManager instance;
+    private static final int MAX_MATCHES = 10;
+    private static final double MIN_MATCH_SCORE = 0.3;
+    private static final int MAX_SUGGESTIONS = 8;
+    private static final int SHORT_QUERY_LENGTH = 4;
+    private static final int LONG_QUERY_LENGTH = 8;
+
     private final List<Restaurant> restaurants;
+    private final Map<Integer, Restaurant> restaurantsById;
+    private final Map<Manager, List<Restaurant>> restaurantsByManager;
+    // Ordered by ID, i.e. registration order, whatever order the statuses changed in
+    private final Map<RestaurantStatus, Set<Restaurant>> restaurantsByStatus;
+    private final RestaurantSearchIndex searchIndex;
+    private final RestaurantFacetIndex facetIndex;
+    private final QueryCache<SearchOutcome> searchCache;
+    // Bumped by every change that can alter a search result; cached results carry the version they saw
+    private final AtomicLong catalogVersion;
+    private final ReentrantReadWriteLock catalogLock;
 
     private RestaurantManager() {
         restaurants = new ArrayList<>();
+        restaurantsById = new ConcurrentHashMap<>();
+        restaurantsByManager = new HashMap<>();
+        restaurantsByStatus = new EnumMap<>(RestaurantStatus.class);
+        for (RestaurantStatus status : RestaurantStatus.values()) {
+            restaurantsByStatus.put(status, new TreeSet<>(Comparator.comparingInt(Restaurant::getId)));
+        }
+        searchIndex = new RestaurantSearchIndex();
+        facetIndex = new RestaurantFacetIndex();
+        searchCache = new QueryCache<>();
+        catalogVersion = new AtomicLong();
+        catalogLock = new ReentrantReadWriteLock();
+    }
+
+    private static final class Holder {
+        private static final RestaurantManager INSTANCE = new RestaurantManager();
     }
 
     public static RestaurantManager getInstance() {
-        if (instance == null) {
-            instance = new RestaurantManager();
+        return Holder.INSTANCE;
+    }
+
+    private <T> T readLocked(Supplier<T> action) {
+        catalogLock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            catalogLock.readLock().unlock();
         }
-        return instance;
+    }
+
+    private <T> T writeLocked(Supplier<T> action) {
+        catalogLock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+
+    private void runWriteLocked(Runnable action) {
+        writeLocked(() -> {
+            action.run();
+            return null;
+        });
     }
 
     public Restaurant createRestaurant(String name, Manager manager, String address, int zoneNumber, List<FoodType> foodTypes) {
         Restaurant restaurant = new Restaurant(name, manager, address, zoneNumber, foodTypes);
-        restaurant.setId(restaurants.size() + 1);
-        restaurants.add(restaurant);
-        return restaurant;
+        return register(restaurant);
     }
 
     public Restaurant createRestaurant(String name, Manager manager, String address, int zoneNumber, List<FoodType> foodTypes, double baseDeliveryCost, double perZoneCost) {
         Restaurant restaurant = new Restaurant(name, manager, address, zoneNumber, foodTypes,
                 baseDeliveryCost, perZoneCost);
-        restaurant.setId(restaurants.size() + 1);
-        restaurants.add(restaurant);
-        return restaurant;
+        return register(restaurant);
     }
 
-//    public Restaurant findRestaurantById(int id) {
-//        return restaurants.stream()
-//                .filter(r -> r.getId() == id)
-//                .findFirst()
-//                .orElse(null);
-//    }
+    private Restaurant register(Restaurant restaurant) {
+        return writeLocked(() -> {
+            restaurant.setId(restaurants.size() + 1);
+            restaurants.add(restaurant);
+            restaurantsById.put(restaurant.getId(), restaurant);
+            restaurantsByManager.computeIfAbsent(restaurant.getManager(), key -> new ArrayList<>()).add(restaurant);
+            restaurantsByStatus.get(restaurant.getStatus()).add(restaurant);
+            facetIndex.update(restaurant);
+            if (restaurant.getStatus() == RestaurantStatus.APPROVED) {
+                searchIndex.addRestaurant(restaurant);
+                catalogVersion.incrementAndGet();
+            }
+            return restaurant;
+        });
+    }
+
+    public Restaurant findRestaurantById(int id) {
+        return restaurantsById.get(id);
+    }
 
     public Restaurant findRestaurantByManager(Manager manager) {
-        return restaurants.stream()
-                .filter(r -> r.getManager().equals(manager)).min((r1, r2) -> {
-                    int priority1 = r1.getStatus() == RestaurantStatus.APPROVED ? 0 :
-                            r1.getStatus() == RestaurantStatus.PENDING_REVIEW ? 1 : 2;
-                    int priority2 = r2.getStatus() == RestaurantStatus.APPROVED ? 0 :
-                            r2.getStatus() == RestaurantStatus.PENDING_REVIEW ? 1 : 2;
-                    return Integer.compare(priority1, priority2);
-                })
-                .orElse(null);
+        return readLocked(() -> {
+            // Approved first, then pending, then rejected; the earliest registered wins a tie
+            Restaurant best = null;
+            for (Restaurant restaurant : restaurantsByManager.getOrDefault(manager, new ArrayList<>())) {
+                if (best == null || statusPriority(restaurant) < statusPriority(best)) {
+                    best = restaurant;
+                }
+            }
+            return best;
+        });
+    }
+
+    public List<Restaurant> getRestaurantsByManager(Manager manager) {
+        return readLocked(() -> new ArrayList<>(restaurantsByManager.getOrDefault(manager, new ArrayList<>())));
+    }
+
+    private static int statusPriority(Restaurant restaurant) {
+        if (restaurant.getStatus() == RestaurantStatus.APPROVED) {
+            return 0;
+        }
+        return restaurant.getStatus() == RestaurantStatus.PENDING_REVIEW ? 1 : 2;
     }
 
     public List<Restaurant> findRestaurantsByName(String name) {
-        return restaurants.stream()
+        return readLocked(() -> restaurants.stream()
                 .filter(r -> r.getName().toLowerCase().contains(name.toLowerCase()))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
 //    public List<Restaurant> findRestaurantsByFoodType(FoodType foodType) {
@@ -73,106 +170,276 @@ public class RestaurantManager {
 //    }
 
     public List<Restaurant> findRestaurantsByFoodName(String foodName) {
-        return restaurants.stream()
+        return readLocked(() -> restaurants.stream()
                 .filter(r -> r.getMenu().stream()
                         .anyMatch(f -> f.getName().toLowerCase().contains(foodName.toLowerCase())))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     public List<Restaurant> getAllRestaurants() {
-        return new ArrayList<>(restaurants);
+        return readLocked(() -> new ArrayList<>(restaurants));
     }
 
     public List<Restaurant> getApprovedRestaurants() {
-        return restaurants.stream()
-                .filter(r -> r.getStatus() == RestaurantStatus.APPROVED)
-                .collect(Collectors.toCollection(ArrayList::new));
+        return readLocked(() -> new ArrayList<>(restaurantsByStatus.get(RestaurantStatus.APPROVED)));
     }
 
     public List<Restaurant> getPendingRestaurants() {
-        return restaurants.stream()
-                .filter(r -> r.getStatus() == RestaurantStatus.PENDING_REVIEW)
-                .collect(Collectors.toCollection(ArrayList::new));
+        return readLocked(() -> new ArrayList<>(restaurantsByStatus.get(RestaurantStatus.PENDING_REVIEW)));
+    }
+
+    private void changeStatus(Restaurant restaurant, RestaurantStatus status) {
+        restaurantsByStatus.get(restaurant.getStatus()).remove(restaurant);
+        restaurant.setStatus(status);
+        restaurantsByStatus.get(status).add(restaurant);
     }
 
     public void approveRestaurant(Restaurant restaurant) {
-        restaurant.setStatus(RestaurantStatus.APPROVED);
+        runWriteLocked(() -> {
+            changeStatus(restaurant, RestaurantStatus.APPROVED);
+            searchIndex.addRestaurant(restaurant);
+            facetIndex.update(restaurant);
+            catalogVersion.incrementAndGet();
+        });
     }
 
     public void rejectRestaurant(Restaurant restaurant, String reason) {
-        restaurant.setStatus(RestaurantStatus.REJECTED);
-        restaurant.setRejectionReason(reason);
+        runWriteLocked(() -> {
+            changeStatus(restaurant, RestaurantStatus.REJECTED);
+            restaurant.setRejectionReason(reason);
+            searchIndex.removeRestaurant(restaurant);
+            facetIndex.update(restaurant);
+            catalogVersion.incrementAndGet();
+        });
+    }
+
+    public void changeZone(Restaurant restaurant, int zoneNumber) {
+        runWriteLocked(() -> {
+            restaurant.setZoneNumber(zoneNumber);
+            facetIndex.update(restaurant);
+        });
+    }
+
+    public List<Restaurant> filterRestaurants(RestaurantFilter filter) {
+        return readLocked(() -> facetIndex.resolve(facetIndex.matching(filter)));
+    }
+
+    public List<Restaurant> searchRestaurants(String query, RestaurantFilter filter) {
+        return readLocked(() -> {
+            BitSet allowed = facetIndex.matching(filter);
+            return searchRestaurants(query).stream()
+                    .filter(restaurant -> facetIndex.contains(restaurant, allowed))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        });
     }
 
     public void addFoodToRestaurant(Restaurant restaurant, Food food) {
-        food.setId(restaurant.getMenu().size() + 1);
-        restaurant.addFood(food);
+        runWriteLocked(() -> {
+            food.setId(restaurant.getMenu().size() + 1);
+            restaurant.addFood(food);
+            if (searchIndex.containsRestaurant(restaurant)) {
+                searchIndex.addFood(restaurant, food);
+            }
+            catalogVersion.incrementAndGet();
+        });
     }
 
     public void removeFoodFromRestaurant(Restaurant restaurant, Food food) {
-        restaurant.removeFood(food);
+        runWriteLocked(() -> {
+            restaurant.removeFood(food);
+            searchIndex.removeFood(food);
+            catalogVersion.incrementAndGet();
+        });
+    }
+
+    public void setFoodAvailability(Restaurant restaurant, Food food, boolean available) {
+        runWriteLocked(() -> {
+            food.setAvailable(available);
+            if (!available) {
+                searchIndex.removeFood(food);
+            } else if (searchIndex.containsRestaurant(restaurant)) {
+                searchIndex.addFood(restaurant, food);
+            }
+            catalogVersion.incrementAndGet();
+        });
+    }
+
+    public void renameFood(Restaurant restaurant, Food food, String newName) {
+        runWriteLocked(() -> {
+            searchIndex.removeFood(food);
+            food.setName(newName);
+            if (searchIndex.containsRestaurant(restaurant)) {
+                searchIndex.addFood(restaurant, food);
+            }
+            catalogVersion.incrementAndGet();
+        });
+    }
+
+    public void setFuzzyMatchThreshold(double threshold) {
+        runWriteLocked(() -> {
+            searchIndex.setFuzzyThreshold(threshold);
+            catalogVersion.incrementAndGet();
+        });
+    }
+
+    public void configureSearchCache(int maxSize, long ttlMillis) {
+        searchCache.configure(maxSize, ttlMillis);
+    }
+
+    public QueryCache.Stats getSearchCacheStats() {
+        return searchCache.getStats();
     }
 
     public List<Restaurant> searchRestaurants(String query) {
+        return search(query).getRestaurants();
+    }
+
+    /**
+     * Searches like searchRestaurants and also tells which spell-corrected query the
+     * results are for, so callers can show it without correcting the query again.
+     */
+    public SearchOutcome search(String query) {
         if (query == null || query.trim().isEmpty()) {
-            return getApprovedRestaurants();
+            return new SearchOutcome(query, query, getApprovedRestaurants());
         }
 
-        List<String> restaurantNames = restaurants.stream()
-                .filter(r -> r.getStatus() == RestaurantStatus.APPROVED)
-                .map(Restaurant::getName)
-                .collect(Collectors.toList());
+        // Read the version first so a result computed during a catalog change is never reused
+        long version = catalogVersion.get();
+        String key = TextSimilarity.normalizeString(query).replaceAll("\\s+", " ");
+        SearchOutcome cached = searchCache.get(key, version);
+        if (cached == null) {
+            cached = runSearch(query);
+            searchCache.put(key, version, cached);
+        }
+        return cached;
+    }
 
-        List<String> foodNames = restaurants.stream()
-                .filter(r -> r.getStatus() == RestaurantStatus.APPROVED)
-                .flatMap(r -> r.getMenu().stream())
-                .filter(Food::isAvailable)
-                .map(Food::getName)
-                .collect(Collectors.toList());
+    // Misspelled words are corrected here and only here, once per search that misses the cache
+    private SearchOutcome runSearch(String query) {
+        return readLocked(() -> {
 
-        // Use text similarity for intelligent search
-        List<TextSimilarity.SearchResult> restaurantMatches = TextSimilarity.findBestMatches(query, restaurantNames, 10);
-        List<TextSimilarity.SearchResult> foodMatches = TextSimilarity.findBestMatches(query, foodNames, 10);
+            // Misspelled words are replaced by their closest known token before anything is scored
+            String corrected = searchIndex.correctQuery(query);
+            Set<Restaurant> results = new LinkedHashSet<>();
+
+            // Names within a few typos of the whole query are taken as-is, without scoring
+            int maxTypos = typoBudget(corrected);
+            for (String name : searchIndex.restaurantNamesWithin(corrected, maxTypos)) {
+                results.addAll(searchIndex.restaurantsNamed(name));
+            }
+            for (String name : searchIndex.foodNamesWithin(corrected, maxTypos)) {
+                results.addAll(searchIndex.restaurantsServing(name));
+            }
 
-        List<Restaurant> results = new ArrayList<>();
+            // Only names sharing a token with the query are scored; matches resolve straight to restaurants
+            NormalizedText normalizedQuery = new NormalizedText(corrected);
+            List<TextSimilarity.SearchResult> restaurantMatches = TextSimilarity.findBestMatches(
+                    normalizedQuery, searchIndex.restaurantNameCandidates(corrected), MAX_MATCHES);
+            List<TextSimilarity.SearchResult> foodMatches = TextSimilarity.findBestMatches(
+                    normalizedQuery, searchIndex.foodNameCandidates(corrected), MAX_MATCHES);
 
-        for (TextSimilarity.SearchResult match : restaurantMatches) {
-            if (match.getScore() > 0.3) {
-                results.addAll(findRestaurantsByName(match.getText()));
+            for (TextSimilarity.SearchResult match : restaurantMatches) {
+                if (match.getScore() > MIN_MATCH_SCORE) {
+                    results.addAll(searchIndex.restaurantsNamed(match.getText()));
+                }
             }
-        }
 
-        for (TextSimilarity.SearchResult match : foodMatches) {
-            if (match.getScore() > 0.3) {
-                results.addAll(findRestaurantsByFoodName(match.getText()));
+            for (TextSimilarity.SearchResult match : foodMatches) {
+                if (match.getScore() > MIN_MATCH_SCORE) {
+                    results.addAll(searchIndex.restaurantsServing(match.getText()));
+                }
             }
+
+            // Equal ratings fall back to the restaurant ID so ties rank the same on every run
+            return new SearchOutcome(query, corrected, results.stream()
+                    .sorted(Comparator.comparingDouble(Restaurant::getRating).reversed()
+                            .thenComparingInt(Restaurant::getId))
+                    .collect(Collectors.toList()));
+        });
+    }
+
+    public String correctQuery(String query) {
+        return readLocked(() -> searchIndex.correctQuery(query));
+    }
+
+    public void setSpellingLimits(int maxEditDistance, int prefixLength) {
+        runWriteLocked(() -> {
+            searchIndex.setSpellingLimits(maxEditDistance, prefixLength);
+            catalogVersion.incrementAndGet();
+        });
+    }
+
+    public List<String> findNamesWithin(String query, int maxDistance) {
+        return readLocked(() -> {
+            Set<String> names = new LinkedHashSet<>(searchIndex.restaurantNamesWithin(query, maxDistance));
+            names.addAll(searchIndex.foodNamesWithin(query, maxDistance));
+            return new ArrayList<>(names);
+        });
+    }
+
+    private static int typoBudget(String query) {
+        int length = TextSimilarity.normalizeString(query).length();
+        if (length < SHORT_QUERY_LENGTH) {
+            return 0;
         }
+        return length < LONG_QUERY_LENGTH ? 1 : 2;
+    }
+
+    public List<String> getSearchSuggestions(String partial) {
+        return readLocked(() -> {
+            // Both lists are precomputed per prefix and already ranked by rating
+            List<String> suggestions = new ArrayList<>(searchIndex.restaurantSuggestions(partial));
+            suggestions.addAll(searchIndex.foodSuggestions(partial));
 
-        return results.stream()
-                .distinct()
-                .sorted((r1, r2) -> Double.compare(r2.getRating(), r1.getRating()))
-                .collect(Collectors.toCollection(ArrayList::new));
+            return suggestions.stream()
+                    .distinct()
+                    .limit(MAX_SUGGESTIONS)
+                    .collect(Collectors.toList());
+        });
     }
 
-//    public List<String> getSearchSuggestions(String partial) {
-//
-//        List<String> restaurantNames = getApprovedRestaurants().stream()
-//                .map(Restaurant::getName)
-//                .collect(Collectors.toList());
-//
-//        List<String> suggestions = new ArrayList<>(TextSimilarity.getAutocompleteSuggestions(partial, restaurantNames, 5));
-//
-//        List<String> foodNames = getApprovedRestaurants().stream()
-//                .flatMap(r -> r.getMenu().stream())
-//                .filter(Food::isAvailable)
-//                .map(Food::getName)
-//                .collect(Collectors.toList());
-//
-//        suggestions.addAll(TextSimilarity.getAutocompleteSuggestions(partial, foodNames, 5));
-//
-//        return suggestions.stream()
-//                .distinct()
-//                .limit(8)
-//                .collect(Collectors.toList());
-//    }
+    public void addRating(Restaurant restaurant, int rating) {
+        runWriteLocked(() -> {
+            restaurant.addRating(rating);
+            searchIndex.updateRating(restaurant);
+            facetIndex.update(restaurant);
+            catalogVersion.incrementAndGet();
+        });
+    }
+
+    public void setRating(Restaurant restaurant, double rating, int ratingCount) {
+        runWriteLocked(() -> {
+            restaurant.setRating(rating);
+            restaurant.setRatingCount(ratingCount);
+            searchIndex.updateRating(restaurant);
+            facetIndex.update(restaurant);
+            catalogVersion.incrementAndGet();
+        });
+    }
+
+    // A search's restaurants, with the spell-corrected query they were found for
+    public static final class SearchOutcome {
+        private final String correctedQuery;
+        private final boolean corrected;
+        private final List<Restaurant> restaurants;
+
+        public SearchOutcome(String query, String correctedQuery, List<Restaurant> restaurants) {
+            this.correctedQuery = correctedQuery;
+            this.corrected = correctedQuery != null && !correctedQuery.equals(query);
+            this.restaurants = restaurants;
+        }
+
+        public String getCorrectedQuery() {
+            return correctedQuery;
+        }
+
+        public boolean isCorrected() {
+            return corrected;
+        }
+
+        // A copy, since outcomes are shared through the search cache
+        public List<Restaurant> getRestaurants() {
+            return new ArrayList<>(restaurants);
+        }
+    }
 }
@@ -0,0 +1,298 @@
+package ir.ac.kntu.managers;
+
+import ir.ac.kntu.models.Food;
+import ir.ac.kntu.models.Restaurant;
+import ir.ac.kntu.utilities.BKTree;
+import ir.ac.kntu.utilities.FuzzyIndex;
+import ir.ac.kntu.utilities.NormalizedText;
+import ir.ac.kntu.utilities.SpellingDictionary;
+import ir.ac.kntu.utilities.SuggestionTrie;
+import ir.ac.kntu.utilities.TextSimilarity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/*
+ * RestaurantSearchIndex
+ *
+ * Inverted index over the names of approved restaurants and their available foods.
+ * Every normalized token points at the distinct names that contain it, and every
+ * name points at the restaurants (or foods) carrying it. A search only scores the
+ * names sharing a token with the query and resolves matches without a second scan.
+ * Names are also kept in trigram FuzzyIndexes so misspelled queries still find them,
+ * and in BK-trees for cheap "within k edits of the whole name" lookups. A shared
+ * spelling dictionary over all name tokens corrects query words before scoring.
+ * Suggestion tries rank completions by the best rating among the holders of a name.
+ * Candidates are handed out in the models' cached normalized form, so scoring them
+ * does no regex work.
+ */
+public class RestaurantSearchIndex {
+    private final NavigableMap<String, Set<String>> restaurantTokens;
+    private final NavigableMap<String, Set<String>> foodTokens;
+    private final Map<String, Set<Restaurant>> restaurantsByName;
+    private final Map<String, Map<Food, Restaurant>> foodsByName;
+    private final Map<Restaurant, String> indexedRestaurants;
+    private final Map<Food, String> indexedFoods;
+    private final Map<String, NormalizedText> restaurantForms;
+    private final Map<String, NormalizedText> foodForms;
+    private final FuzzyIndex restaurantFuzzyIndex;
+    private final FuzzyIndex foodFuzzyIndex;
+    private final BKTree restaurantNameTree;
+    private final BKTree foodNameTree;
+    private final SpellingDictionary spelling;
+    private final SuggestionTrie restaurantSuggestions;
+    private final SuggestionTrie foodSuggestions;
+
+    public RestaurantSearchIndex() {
+        restaurantTokens = new TreeMap<>();
+        foodTokens = new TreeMap<>();
+        restaurantsByName = new HashMap<>();
+        foodsByName = new HashMap<>();
+        indexedRestaurants = new HashMap<>();
+        indexedFoods = new HashMap<>();
+        restaurantForms = new HashMap<>();
+        foodForms = new HashMap<>();
+        restaurantFuzzyIndex = new FuzzyIndex();
+        foodFuzzyIndex = new FuzzyIndex();
+        restaurantNameTree = new BKTree();
+        foodNameTree = new BKTree();
+        spelling = new SpellingDictionary();
+        restaurantSuggestions = new SuggestionTrie();
+        foodSuggestions = new SuggestionTrie();
+    }
+
+    public void setFuzzyThreshold(double threshold) {
+        restaurantFuzzyIndex.setThreshold(threshold);
+        foodFuzzyIndex.setThreshold(threshold);
+    }
+
+    public void setSpellingLimits(int maxEditDistance, int prefixLength) {
+        spelling.configure(maxEditDistance, prefixLength);
+    }
+
+    public String correctQuery(String query) {
+        return spelling.correctQuery(query);
+    }
+
+    public void addRestaurant(Restaurant restaurant) {
+        if (indexedRestaurants.containsKey(restaurant)) {
+            return;
+        }
+        String name = restaurant.getName();
+        indexedRestaurants.put(restaurant, name);
+        Set<Restaurant> holders = restaurantsByName.get(name);
+        if (holders == null) {
+            holders = new LinkedHashSet<>();
+            restaurantsByName.put(name, holders);
+            restaurantForms.put(name, restaurant.getSearchName());
+            indexTokens(restaurantTokens, name);
+            restaurantFuzzyIndex.add(name);
+            restaurantNameTree.add(name);
+            spelling.addName(name);
+        }
+        holders.add(restaurant);
+        updateRestaurantWeight(name);
+
+        for (Food food : restaurant.getMenu()) {
+            addFood(restaurant, food);
+        }
+    }
+
+    public void removeRestaurant(Restaurant restaurant) {
+        String name = indexedRestaurants.remove(restaurant);
+        if (name == null) {
+            return;
+        }
+        Set<Restaurant> holders = restaurantsByName.get(name);
+        holders.remove(restaurant);
+        if (holders.isEmpty()) {
+            restaurantsByName.remove(name);
+            restaurantForms.remove(name);
+            unindexTokens(restaurantTokens, name);
+            restaurantFuzzyIndex.remove(name);
+            restaurantNameTree.remove(name);
+            spelling.removeName(name);
+        }
+        updateRestaurantWeight(name);
+
+        for (Food food : restaurant.getMenu()) {
+            removeFood(food);
+        }
+    }
+
+    public void addFood(Restaurant restaurant, Food food) {
+        if (!food.isAvailable() || indexedFoods.containsKey(food)) {
+            return;
+        }
+        String name = food.getName();
+        indexedFoods.put(food, name);
+        Map<Food, Restaurant> holders = foodsByName.get(name);
+        if (holders == null) {
+            holders = new LinkedHashMap<>();
+            foodsByName.put(name, holders);
+            foodForms.put(name, food.getSearchName());
+            indexTokens(foodTokens, name);
+            foodFuzzyIndex.add(name);
+            foodNameTree.add(name);
+            spelling.addName(name);
+        }
+        holders.put(food, restaurant);
+        updateFoodWeight(name);
+    }
+
+    public void removeFood(Food food) {
+        String name = indexedFoods.remove(food);
+        if (name == null) {
+            return;
+        }
+        Map<Food, Restaurant> holders = foodsByName.get(name);
+        holders.remove(food);
+        if (holders.isEmpty()) {
+            foodsByName.remove(name);
+            foodForms.remove(name);
+            unindexTokens(foodTokens, name);
+            foodFuzzyIndex.remove(name);
+            foodNameTree.remove(name);
+            spelling.removeName(name);
+        }
+        updateFoodWeight(name);
+    }
+
+    /**
+     * Re-ranks the suggestions for the restaurant's name and foods after its rating changed.
+     */
+    public void updateRating(Restaurant restaurant) {
+        String name = indexedRestaurants.get(restaurant);
+        if (name == null) {
+            return;
+        }
+        updateRestaurantWeight(name);
+        for (Food food : restaurant.getMenu()) {
+            String foodName = indexedFoods.get(food);
+            if (foodName != null) {
+                updateFoodWeight(foodName);
+            }
+        }
+    }
+
+    public List<String> restaurantSuggestions(String prefix) {
+        return restaurantSuggestions.suggest(prefix);
+    }
+
+    public List<String> foodSuggestions(String prefix) {
+        return foodSuggestions.suggest(prefix);
+    }
+
+    public boolean containsRestaurant(Restaurant restaurant) {
+        return indexedRestaurants.containsKey(restaurant);
+    }
+
+    public NormalizedText[] restaurantNameCandidates(String query) {
+        return normalizedForms(collectCandidates(restaurantTokens, restaurantFuzzyIndex, query), restaurantForms);
+    }
+
+    public NormalizedText[] foodNameCandidates(String query) {
+        return normalizedForms(collectCandidates(foodTokens, foodFuzzyIndex, query), foodForms);
+    }
+
+    public List<String> restaurantNamesWithin(String query, int maxDistance) {
+        return restaurantNameTree.findWithin(query, maxDistance);
+    }
+
+    public List<String> foodNamesWithin(String query, int maxDistance) {
+        return foodNameTree.findWithin(query, maxDistance);
+    }
+
+    public Set<Restaurant> restaurantsNamed(String name) {
+        Set<Restaurant> holders = restaurantsByName.get(name);
+        return holders == null ? new LinkedHashSet<>() : new LinkedHashSet<>(holders);
+    }
+
+    public Set<Restaurant> restaurantsServing(String foodName) {
+        Set<Restaurant> result = new LinkedHashSet<>();
+        Map<Food, Restaurant> holders = foodsByName.get(foodName);
+        if (holders != null) {
+            for (Map.Entry<Food, Restaurant> entry : holders.entrySet()) {
+                if (entry.getKey().isAvailable()) {
+                    result.add(entry.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    private void updateRestaurantWeight(String name) {
+        Set<Restaurant> holders = restaurantsByName.get(name);
+        if (holders == null) {
+            restaurantSuggestions.remove(name);
+            return;
+        }
+        restaurantSuggestions.add(name, bestRating(holders));
+    }
+
+    private void updateFoodWeight(String name) {
+        Map<Food, Restaurant> holders = foodsByName.get(name);
+        if (holders == null) {
+            foodSuggestions.remove(name);
+            return;
+        }
+        foodSuggestions.add(name, bestRating(holders.values()));
+    }
+
+    private static double bestRating(Collection<Restaurant> restaurants) {
+        double best = 0.0;
+        for (Restaurant restaurant : restaurants) {
+            best = Math.max(best, restaurant.getRating());
+        }
+        return best;
+    }
+
+    private static NormalizedText[] normalizedForms(List<String> names, Map<String, NormalizedText> forms) {
+        NormalizedText[] result = new NormalizedText[names.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = forms.get(names.get(i));
+        }
+        return result;
+    }
+
+    private static List<String> collectCandidates(NavigableMap<String, Set<String>> tokens,
+                                                  FuzzyIndex fuzzyIndex, String query) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String token : TextSimilarity.tokenizeAndNormalize(query)) {
+            // Tokens only hold [a-z0-9], so this range covers every token starting with the query token
+            for (Set<String> posting : tokens.subMap(token, true, token + Character.MAX_VALUE, true).values()) {
+                names.addAll(posting);
+            }
+        }
+
+        // Trigram neighbours cover misspellings and matches inside longer words
+        names.addAll(fuzzyIndex.candidates(query));
+        return new ArrayList<>(names);
+    }
+
+    private static void indexTokens(NavigableMap<String, Set<String>> tokens, String name) {
+        for (String token : TextSimilarity.tokenizeAndNormalize(name)) {
+            tokens.computeIfAbsent(token, key -> new LinkedHashSet<>()).add(name);
+        }
+    }
+
+    private static void unindexTokens(NavigableMap<String, Set<String>> tokens, String name) {
+        for (String token : TextSimilarity.tokenizeAndNormalize(name)) {
+            Set<String> posting = tokens.get(token);
+            if (posting != null) {
+                posting.remove(name);
+                if (posting.isEmpty()) {
+                    tokens.remove(token);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ir.ac.kntu.managers;
+
+import ir.ac.kntu.models.User;
+
+/*
+ * Session
+ *
+ * One logged-in user behind an opaque token. The last-activity stamp is updated
+ * on every use and decides when the session expires.
+ */
+public class Session {
+    private final String token;
+    private final User user;
+    private final long createdAt;
+    private volatile long lastActivity;
+
+    public Session(String token, User user, long createdAt) {
+        this.token = token;
+        this.user = user;
+        this.createdAt = createdAt;
+        this.lastActivity = createdAt;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getLastActivity() {
+        return lastActivity;
+    }
+
+    public void touch(long now) {
+        lastActivity = now;
+    }
+}
@@ -2,31 +2,203 @@ package ir.ac.kntu.managers;
 
 import ir.ac.kntu.models.User;
 
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/*
+ * SessionManager
+ *
+ * Registry of every open session, looked up by opaque token in a concurrent hash
+ * map. A session is bound to the thread serving it, so handlers keep calling
+ * getCurrentUser() and get the user of their own connection. Sessions idle for
+ * longer than the timeout expire: lookups reject them straight away, and a sweep
+ * that rides on normal traffic removes them entry by entry, never locking the map.
+ */
 public class SessionManager {
-    private static final SessionManager INSTANCE = new SessionManager();
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final int TOKEN_BYTES = 24;
+    private static final SessionManager INSTANCE = new SessionManager(System::nanoTime);
 
-    private User currentUser;
+    private final Map<String, Session> sessions;
+    private final ThreadLocal<Session> boundSession;
+    private final SecureRandom random;
+    private final LongSupplier clock;
+    private final AtomicLong lastSweep;
+    private volatile long idleTimeoutNanos;
 
-    private SessionManager() {
+    public SessionManager(LongSupplier clock) {
+        this.sessions = new ConcurrentHashMap<>();
+        this.boundSession = new ThreadLocal<>();
+        this.random = new SecureRandom();
+        this.clock = clock;
+        this.lastSweep = new AtomicLong(clock.getAsLong());
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_IDLE_TIMEOUT_MILLIS);
     }
 
     public static SessionManager getInstance() {
         return INSTANCE;
     }
 
+    public void setIdleTimeout(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Idle timeout must be positive");
+        }
+        idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Opens a session for the user and binds it to the calling thread, closing the one
+     * the thread had before.
+     */
     public void login(User user) {
-        this.currentUser = user;
+        Session previous = boundSession.get();
+        if (previous != null) {
+            sessions.remove(previous.getToken(), previous);
+        }
+        boundSession.set(openSession(user));
     }
 
     public void logout() {
-        this.currentUser = null;
+        Session session = boundSession.get();
+        if (session != null) {
+            sessions.remove(session.getToken(), session);
+            boundSession.remove();
+        }
     }
 
-//    public boolean isLoggedIn() {
-//        return currentUser != null;
-//    }
-
     public User getCurrentUser() {
-        return currentUser;
+        Session session = boundSession.get();
+        if (session == null) {
+            return null;
+        }
+        if (!isLive(session)) {
+            boundSession.remove();
+            return null;
+        }
+        session.touch(clock.getAsLong());
+        return session.getUser();
+    }
+
+    public String getCurrentToken() {
+        Session session = boundSession.get();
+        return session == null ? null : session.getToken();
+    }
+
+    // Registers a session without binding it; the token is handed to the client
+    public Session openSession(User user) {
+        long now = clock.getAsLong();
+        Session session = new Session(newToken(), user, now);
+        sessions.put(session.getToken(), session);
+        sweepIfDue(now);
+        return session;
+    }
+
+    /**
+     * Returns the live session for the token and counts the lookup as activity.
+     */
+    public Session findSession(String token) {
+        Session session = token == null ? null : sessions.get(token);
+        if (session == null || !isLive(session)) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        session.touch(now);
+        sweepIfDue(now);
+        return session;
+    }
+
+    public boolean bind(String token) {
+        Session session = findSession(token);
+        if (session == null) {
+            return false;
+        }
+        boundSession.set(session);
+        return true;
+    }
+
+    public void unbind() {
+        boundSession.remove();
+    }
+
+    /**
+     * Runs the action as the token's user and restores the thread's previous session
+     * afterwards, so pooled threads never leak one connection's user into the next.
+     */
+    public <T> T callAs(String token, Supplier<T> action) {
+        Session session = findSession(token);
+        if (session == null) {
+            throw new IllegalStateException("Session expired or unknown");
+        }
+        return callAs(session, action);
+    }
+
+    // Like callAs(token, action) for a session the caller has already looked up
+    public <T> T callAs(Session session, Supplier<T> action) {
+        Session previous = boundSession.get();
+        boundSession.set(session);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                boundSession.remove();
+            } else {
+                boundSession.set(previous);
+            }
+        }
+    }
+
+    public void closeSession(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Removes every expired session and returns how many were removed.
+     */
+    public int sweep() {
+        long now = clock.getAsLong();
+        int removed = 0;
+        for (Session session : sessions.values()) {
+            if (isExpired(session, now) && sessions.remove(session.getToken(), session)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private void sweepIfDue(long now) {
+        long previous = lastSweep.get();
+        if (now - previous >= idleTimeoutNanos / 4 && lastSweep.compareAndSet(previous, now)) {
+            sweep();
+        }
+    }
+
+    private boolean isExpired(Session session, long now) {
+        return now - session.getLastActivity() > idleTimeoutNanos;
+    }
+
+    private boolean isLive(Session session) {
+        if (isExpired(session, clock.getAsLong())) {
+            sessions.remove(session.getToken(), session);
+            return false;
+        }
+        return session.equals(sessions.get(session.getToken()));
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
     }
-}
\ No newline at end of file
+}
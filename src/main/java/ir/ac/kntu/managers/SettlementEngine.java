@@ -0,0 +1,153 @@
+package ir.ac.kntu.managers;
+
+import ir.ac.kntu.models.LedgerEntry;
+import ir.ac.kntu.models.Restaurant;
+import ir.ac.kntu.models.Wallet;
+import ir.ac.kntu.models.enums.LedgerReason;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/*
+ * SettlementEngine
+ *
+ * Delivery credits for restaurants, gathered without contention and moved into the
+ * restaurant wallets in batches. Each restaurant has a LongAdder that delivering
+ * threads add to without waiting for each other; a flush moves whatever has built up
+ * into the wallet as one ledger movement. Flushes piggyback on accruals once the
+ * flush interval has passed, and can also be run on demand.
+ *
+ * No lock is held across restaurants, so settlement cannot deadlock. An exact
+ * balance is the wallet plus the unflushed credits, read under a per-restaurant
+ * version stamp that a flush makes odd while money is between the two.
+ */
+public class SettlementEngine {
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+
+    private final Map<Long, Account> accounts;
+    private final LongSupplier clock;
+    private final long flushIntervalNanos;
+    private final AtomicLong lastFlush;
+
+    public SettlementEngine(long flushIntervalMillis, LongSupplier clock) {
+        if (flushIntervalMillis < 0) {
+            throw new IllegalArgumentException("Flush interval must not be negative");
+        }
+        this.accounts = new ConcurrentHashMap<>();
+        this.clock = clock;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.lastFlush = new AtomicLong(clock.getAsLong());
+    }
+
+    private static final class Holder {
+        private static final SettlementEngine INSTANCE =
+                new SettlementEngine(DEFAULT_FLUSH_INTERVAL_MILLIS, System::nanoTime);
+    }
+
+    public static SettlementEngine getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // Adds a credit in minor units; it reaches the wallet at the next flush
+    public void accrue(Restaurant restaurant, long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Credit must not be negative");
+        }
+        accountFor(restaurant).pending.add(amount);
+
+        long now = clock.getAsLong();
+        long previous = lastFlush.get();
+        if (now - previous >= flushIntervalNanos && lastFlush.compareAndSet(previous, now)) {
+            flushAll();
+        }
+    }
+
+    /**
+     * The restaurant's balance in minor units including credits not yet flushed.
+     */
+    public long exactBalance(Restaurant restaurant) {
+        Account account = accounts.get(restaurant.getWalletAccount().getId());
+        return account == null ? restaurant.getWalletAccount().getBalance() : account.read();
+    }
+
+    public long pendingCredits(Restaurant restaurant) {
+        Account account = accounts.get(restaurant.getWalletAccount().getId());
+        return account == null ? 0 : account.pending.sum();
+    }
+
+    public void flush(Restaurant restaurant) {
+        Account account = accounts.get(restaurant.getWalletAccount().getId());
+        if (account != null) {
+            account.flush();
+        }
+    }
+
+    // Moves every restaurant's pending credits into its wallet and returns the total moved
+    public long flushAll() {
+        long moved = 0;
+        for (Account account : accounts.values()) {
+            moved += account.flush();
+        }
+        return moved;
+    }
+
+    /**
+     * Forgets every pending credit without paying it out. Only for wiping all data.
+     */
+    public void clear() {
+        accounts.clear();
+    }
+
+    private Account accountFor(Restaurant restaurant) {
+        Wallet wallet = restaurant.getWalletAccount();
+        return accounts.computeIfAbsent(wallet.getId(), id -> new Account(wallet));
+    }
+
+    private static final class Account {
+        private final Wallet wallet;
+        private final LongAdder pending;
+        // Odd while a flush has taken money out of pending but not yet into the wallet
+        private volatile int version;
+
+        private Account(Wallet wallet) {
+            this.wallet = wallet;
+            this.pending = new LongAdder();
+        }
+
+        // Only flushes take the monitor; accruals and reads never do
+        private long flush() {
+            LedgerEntry entry;
+            synchronized (this) {
+                long amount = pending.sum();
+                if (amount == 0) {
+                    return 0;
+                }
+                version++;
+                // Subtracting what was read keeps credits that land meanwhile for the next flush
+                pending.add(-amount);
+                entry = wallet.creditWithoutPublishing(amount, LedgerReason.DELIVERY_CREDIT);
+                version++;
+            }
+            // Published once readers can see the money again; a blocking subscriber would otherwise stall them
+            wallet.getLedger().publish(wallet, entry);
+            return entry.getAmount();
+        }
+
+        private long read() {
+            while (true) {
+                int before = version;
+                if ((before & 1) == 0) {
+                    long total = wallet.getBalance() + pending.sum();
+                    if (before == version) {
+                        return total;
+                    }
+                }
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
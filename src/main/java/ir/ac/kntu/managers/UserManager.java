@@ -4,44 +4,70 @@ import ir.ac.kntu.models.Customer;
 import ir.ac.kntu.models.Manager;
 import ir.ac.kntu.models.Support;
 import ir.ac.kntu.models.User;
+import ir.ac.kntu.models.enums.UserRole;
 
 import java.util.ArrayList;
-
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/*
+ * UserManager
+ *
+ * User directory: registration-ordered user list plus a phone -> user hash index,
+ * one bucket per role and an ID -> user map. Phone uniqueness is claimed with a
+ * single putIfAbsent, so two sign-ups with the same number cannot both succeed.
+ */
 public class UserManager {
-    private static UserManager instance = null;
-    private final ArrayList<User> users;
+    private final List<User> users;
+    private final Map<String, User> usersByPhone;
+    private final Map<UserRole, List<User>> usersByRole;
+    private final Map<Long, User> usersById;
 
-    private long idCounter = 1;
+    private final AtomicLong idCounter = new AtomicLong(1);
 
 
     private UserManager() {
-        users = new ArrayList<>();
+        users = Collections.synchronizedList(new ArrayList<>());
+        usersByPhone = new ConcurrentHashMap<>();
+        usersById = new ConcurrentHashMap<>();
+        usersByRole = new EnumMap<>(UserRole.class);
+        for (UserRole role : UserRole.values()) {
+            usersByRole.put(role, Collections.synchronizedList(new ArrayList<>()));
+        }
+
+        register(new Support("Support", "Team", "support", "support"));
+        register(new Support("Admin", "Support", "09123456789", "support123"));
+        register(new Support("Technical", "Support", "09129876543", "tech456"));
+        register(new Support("Customer", "Care", "09121234567", "care789"));
+    }
 
-        users.add(new Support("Support", "Team", "support", "support"));
-        users.add(new Support("Admin", "Support", "09123456789", "support123"));
-        users.add(new Support("Technical", "Support", "09129876543", "tech456"));
-        users.add(new Support("Customer", "Care", "09121234567", "care789"));
+    private static final class Holder {
+        private static final UserManager INSTANCE = new UserManager();
     }
 
     public static UserManager getInstance() {
-        if (instance == null) {
-            instance = new UserManager();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
-    public ArrayList<User> getUsers() {
-        return users;
+    // Read-only snapshot in registration order
+    public List<User> getUsers() {
+        synchronized (users) {
+            return Collections.unmodifiableList(new ArrayList<>(users));
+        }
     }
 
     public User signUpCustomer(String name, String lastName, String phone, String password) {
-        if (findUserByPhoneNumber(phone) != null) {
+        Customer newCustomer = new Customer(name, lastName, phone, password);
+        if (!claimPhone(newCustomer)) {
             return null;
         }
-
-        Customer newCustomer = new Customer(name, lastName, phone, password);
-        newCustomer.setId(idCounter++);
-        users.add(newCustomer);
+        newCustomer.setId(idCounter.getAndIncrement());
+        register(newCustomer);
 
         SessionManager.getInstance().login(newCustomer);
 
@@ -49,22 +75,29 @@ public class UserManager {
     }
 
     public User signInUser(String phone, String password) {
+        User user = authenticate(phone, password);
+        if (user != null) {
+            SessionManager.getInstance().login(user);
+        }
+        return user;
+    }
+
+    // Checks the credentials without opening a session
+    public User authenticate(String phone, String password) {
         User user = findUserByPhoneNumber(phone);
         if (user != null && user.getPassword().equals(password)) {
-            SessionManager.getInstance().login(user);
             return user;
         }
         return null;
     }
 
     public User signUpManager(String name, String lastName, String phone, String password) {
-        if (findUserByPhoneNumber(phone) != null) {
+        Manager newManager = new Manager(name, lastName, phone, password);
+        if (!claimPhone(newManager)) {
             return null;
         }
-
-        Manager newManager = new Manager(name, lastName, phone, password);
-        newManager.setId(idCounter++);
-        users.add(newManager);
+        newManager.setId(idCounter.getAndIncrement());
+        register(newManager);
 
         SessionManager.getInstance().login(newManager);
 
@@ -72,21 +105,46 @@ public class UserManager {
     }
 
     public User findUserByPhoneNumber(String phoneNumber) {
-        for (User user : users) {
-            if (user.getPhoneNumber().equals(phoneNumber)) {
-                return user;
-            }
+        return phoneNumber == null ? null : usersByPhone.get(phoneNumber);
+    }
+
+    public User findUserById(long id) {
+        return usersById.get(id);
+    }
+
+    public ArrayList<User> getUsersByRole(UserRole role) {
+        List<User> bucket = usersByRole.get(role);
+        synchronized (bucket) {
+            return new ArrayList<>(bucket);
         }
-        return null;
     }
 
-    public ArrayList<User> getUsersByRole(ir.ac.kntu.models.enums.UserRole role) {
-        ArrayList<User> usersByRole = new ArrayList<>();
-        for (User user : users) {
-            if (user.getRole() == role) {
-                usersByRole.add(user);
+    /**
+     * Removes every user matching the filter from the list and all indexes.
+     */
+    public void removeUsers(Predicate<User> filter) {
+        for (User user : getUsers()) {
+            if (filter.test(user)) {
+                users.remove(user);
+                usersByRole.get(user.getRole()).remove(user);
+                usersByPhone.remove(user.getPhoneNumber(), user);
+                if (user.getId() != null) {
+                    usersById.remove(user.getId(), user);
+                }
             }
         }
-        return usersByRole;
+    }
+
+    private boolean claimPhone(User user) {
+        return usersByPhone.putIfAbsent(user.getPhoneNumber(), user) == null;
+    }
+
+    private void register(User user) {
+        usersByPhone.putIfAbsent(user.getPhoneNumber(), user);
+        users.add(user);
+        usersByRole.get(user.getRole()).add(user);
+        if (user.getId() != null) {
+            usersById.put(user.getId(), user);
+        }
     }
 }
@@ -0,0 +1,204 @@
+package ir.ac.kntu.managers;
+
+import ir.ac.kntu.events.EventBus;
+import ir.ac.kntu.events.WalletMoved;
+import ir.ac.kntu.models.LedgerEntry;
+import ir.ac.kntu.models.Wallet;
+import ir.ac.kntu.models.enums.LedgerReason;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * WalletLedger
+ *
+ * Append-only record of every wallet movement, kept per wallet. Entries go onto a
+ * lock-free queue for their wallet and are never changed, so writers on different
+ * wallets do not wait for each other. Each wallet keeps its most recent entries; older
+ * ones are folded into an opening balance, so memory stays bounded in long-running
+ * servers while the opening balance plus the kept entries still adds up to the
+ * wallet's balance, which is how balances are rebuilt or audited.
+ */
+public class WalletLedger {
+    public static final int DEFAULT_RETAINED_ENTRIES = 1000;
+
+    private final Map<Long, History> histories;
+    private final AtomicLong sequence;
+    private final AtomicLong walletIds;
+    private final int retainedEntries;
+    private final EventBus events;
+
+    public WalletLedger() {
+        this(null, DEFAULT_RETAINED_ENTRIES);
+    }
+
+    /**
+     * Movements are published to the bus as WalletMoved events, and a null bus publishes
+     * nothing. Each wallet keeps at least the given number of its latest entries.
+     */
+    public WalletLedger(EventBus events, int retainedEntries) {
+        if (retainedEntries <= 0) {
+            throw new IllegalArgumentException("Retained entries must be positive");
+        }
+        this.histories = new ConcurrentHashMap<>();
+        this.sequence = new AtomicLong();
+        this.walletIds = new AtomicLong();
+        this.retainedEntries = retainedEntries;
+        this.events = events;
+    }
+
+    private static final class Holder {
+        private static final WalletLedger INSTANCE = new WalletLedger(EventBus.getInstance(), DEFAULT_RETAINED_ENTRIES);
+    }
+
+    public static WalletLedger getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public long newWalletId() {
+        return walletIds.incrementAndGet();
+    }
+
+    public LedgerEntry record(Wallet wallet, long amount, long balanceAfter, LedgerReason reason) {
+        LedgerEntry entry = append(wallet.getId(), amount, balanceAfter, reason);
+        publish(wallet, entry);
+        return entry;
+    }
+
+    /**
+     * Records the movement without publishing it. Publishing can wait on a slow
+     * subscriber, so callers inside a critical section append first and publish the
+     * entry once they have left it.
+     */
+    public LedgerEntry append(long walletId, long amount, long balanceAfter, LedgerReason reason) {
+        LedgerEntry entry = new LedgerEntry(sequence.incrementAndGet(), walletId, amount, balanceAfter, reason);
+        histories.computeIfAbsent(walletId, id -> new History()).add(entry, retainedEntries);
+        return entry;
+    }
+
+    public void publish(Wallet wallet, LedgerEntry entry) {
+        if (events != null && events.hasSubscribers()) {
+            events.publish(new WalletMoved(wallet.getOwner(), entry));
+        }
+    }
+
+    // Every kept entry, oldest first
+    public List<LedgerEntry> getEntries() {
+        List<LedgerEntry> all = new ArrayList<>();
+        for (History history : histories.values()) {
+            all.addAll(history.snapshot());
+        }
+        all.sort(Comparator.comparingLong(LedgerEntry::getSequence));
+        return all;
+    }
+
+    // The wallet's kept entries, oldest first; older ones are in its opening balance
+    public List<LedgerEntry> getEntries(Wallet wallet) {
+        History history = histories.get(wallet.getId());
+        return history == null ? new ArrayList<>() : history.snapshot();
+    }
+
+    public long getOpeningBalance(Wallet wallet) {
+        History history = histories.get(wallet.getId());
+        return history == null ? 0 : history.openingBalance();
+    }
+
+    public long rebuildBalance(Wallet wallet) {
+        History history = histories.get(wallet.getId());
+        return history == null ? 0 : history.balance();
+    }
+
+    // Balances by wallet ID, one wallet at a time
+    public Map<Long, Long> rebuildBalances() {
+        Map<Long, Long> balances = new HashMap<>();
+        histories.forEach((walletId, history) -> balances.put(walletId, history.balance()));
+        return balances;
+    }
+
+    // Entries currently kept across all wallets
+    public int size() {
+        int total = 0;
+        for (History history : histories.values()) {
+            total += history.entryCount();
+        }
+        return total;
+    }
+
+    /**
+     * Folds every kept entry into its wallet's opening balance. Rebuilt balances still
+     * match the wallets; only the itemised history is let go.
+     */
+    public void checkpoint() {
+        for (History history : histories.values()) {
+            history.fold(0);
+        }
+    }
+
+    /**
+     * Drops the recorded history and opening balances. Wallets keep their balances, so
+     * only use this when the wallets themselves are being thrown away too; otherwise
+     * use checkpoint().
+     */
+    public void clear() {
+        histories.clear();
+    }
+
+    private static final class History {
+        private final Queue<LedgerEntry> entries;
+        private final AtomicInteger count;
+        // Sum of the entries folded away; guarded by this
+        private long opening;
+
+        private History() {
+            this.entries = new ConcurrentLinkedQueue<>();
+            this.count = new AtomicInteger();
+        }
+
+        // Appends stay lock-free; folding waits until twice the kept count so it runs in batches
+        private void add(LedgerEntry entry, int retained) {
+            entries.add(entry);
+            if (count.incrementAndGet() > 2L * retained) {
+                fold(retained);
+            }
+        }
+
+        private synchronized void fold(int keep) {
+            while (count.get() > keep) {
+                LedgerEntry oldest = entries.poll();
+                if (oldest == null) {
+                    break;
+                }
+                opening += oldest.getAmount();
+                count.decrementAndGet();
+            }
+        }
+
+        private synchronized long openingBalance() {
+            return opening;
+        }
+
+        private synchronized long balance() {
+            long total = opening;
+            for (LedgerEntry entry : entries) {
+                total += entry.getAmount();
+            }
+            return total;
+        }
+
+        private synchronized List<LedgerEntry> snapshot() {
+            return new ArrayList<>(entries);
+        }
+
+        private int entryCount() {
+            return count.get();
+        }
+    }
+}
@@ -1,41 +1,36 @@
 package ir.ac.kntu.models;
 
+import ir.ac.kntu.models.enums.LedgerReason;
 import ir.ac.kntu.models.enums.UserRole;
+import ir.ac.kntu.utilities.Money;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class Customer extends User {
 
-    private double wallet;
+    private final Wallet wallet;
     private final List<Address> addresses;
 
     public Customer(String name, String lastName, String phoneNumber, String password) {
         super(name, lastName, phoneNumber, password, UserRole.CUSTOMER);
-        this.wallet = 0.0;
+        this.wallet = new Wallet(() -> "customer:" + getPhoneNumber());
         this.addresses = new ArrayList<>();
     }
 
+    // The balance in Toman; movements go through getWalletAccount()
     public double getWallet() {
-        return wallet;
+        return Money.toToman(wallet.getBalance());
     }
 
     public void setWallet(double wallet) {
-        this.wallet = wallet;
+        this.wallet.setBalance(Money.toMinor(wallet), LedgerReason.ADJUSTMENT);
     }
 
-    public void addToWallet(double amount) {
-        this.wallet += amount;
+    public Wallet getWalletAccount() {
+        return wallet;
     }
 
-//    public boolean deductFromWallet(double amount) {
-//        if (wallet >= amount) {
-//            wallet -= amount;
-//            return true;
-//        }
-//        return false;
-//    }
-
     public List<Address> getAddresses() {
         return addresses;
     }
@@ -72,6 +67,6 @@ public class Customer extends User {
 
     @Override
     public String toString() {
-        return super.toString() + ", wallet=" + wallet + ", addresses=" + addresses.size();
+        return super.toString() + ", wallet=" + getWallet() + ", addresses=" + addresses.size();
     }
 }
\ No newline at end of file
@@ -1,10 +1,12 @@
 package ir.ac.kntu.models;
 
 import ir.ac.kntu.models.enums.*;
+import ir.ac.kntu.utilities.NormalizedText;
 
 public class Food {
     private int id;
     private String name;
+    private NormalizedText searchName;
     private double price;
     private boolean available;
     private final FoodCategory category;
@@ -25,6 +27,7 @@ public class Food {
 
     public Food(String name, double price, FoodCategory category) {
         this.name = name;
+        this.searchName = new NormalizedText(name);
         this.price = price;
         this.category = category;
         this.available = true;
@@ -33,6 +36,7 @@ public class Food {
     public Food(int id, String name, double price, boolean available, FoodCategory category) {
         this.id = id;
         this.name = name;
+        this.searchName = new NormalizedText(name);
         this.price = price;
         this.available = available;
         this.category = category;
@@ -51,8 +55,14 @@ public class Food {
         return name;
     }
 
+    // Normalized name and tokens for search, rebuilt only when the name changes
+    public NormalizedText getSearchName() {
+        return searchName;
+    }
+
     public void setName(String name) {
         this.name = name;
+        this.searchName = new NormalizedText(name);
     }
 
     public double getPrice() {
@@ -0,0 +1,50 @@
+package ir.ac.kntu.models;
+
+import ir.ac.kntu.models.enums.LedgerReason;
+
+/*
+ * LedgerEntry
+ *
+ * One wallet movement, never changed once written. The amount is signed, in minor
+ * units, and the balance is the wallet's balance right after the movement.
+ */
+public class LedgerEntry {
+    private final long sequence;
+    private final long walletId;
+    private final long amount;
+    private final long balanceAfter;
+    private final LedgerReason reason;
+
+    public LedgerEntry(long sequence, long walletId, long amount, long balanceAfter, LedgerReason reason) {
+        this.sequence = sequence;
+        this.walletId = walletId;
+        this.amount = amount;
+        this.balanceAfter = balanceAfter;
+        this.reason = reason;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getWalletId() {
+        return walletId;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public long getBalanceAfter() {
+        return balanceAfter;
+    }
+
+    public LedgerReason getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " wallet " + walletId + ": " + amount + " (" + reason + "), balance " + balanceAfter;
+    }
+}
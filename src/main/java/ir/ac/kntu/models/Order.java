@@ -5,6 +5,7 @@ import ir.ac.kntu.models.enums.OrderStatus;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Order {
     private int id;
@@ -13,7 +14,7 @@ public class Order {
     private List<OrderItem> items;
     private final double deliveryCost;
     private final Address deliveryAddress;
-    private OrderStatus status;
+    private final AtomicReference<OrderStatus> status;
     private final LocalDateTime orderTime;
     private String reviewComment;
     private int reviewRating;
@@ -25,7 +26,7 @@ public class Order {
         this.items = items != null ? items : new ArrayList<>();
         this.deliveryCost = deliveryCost;
         this.deliveryAddress = deliveryAddress;
-        this.status = OrderStatus.REGISTERED;
+        this.status = new AtomicReference<>(OrderStatus.REGISTERED);
         this.orderTime = LocalDateTime.now();
     }
 
@@ -83,11 +84,20 @@ public class Order {
 //    }
 
     public OrderStatus getStatus() {
-        return status;
+        return status.get();
     }
 
+    // Sets the status unchecked, for orders being restored; live changes go through OrderManager
     public void setStatus(OrderStatus status) {
-        this.status = status;
+        this.status.set(status);
+    }
+
+    /**
+     * Moves the order from the expected status to the next one, if it is still in the
+     * expected status. Only one of several racing callers can succeed.
+     */
+    public boolean compareAndSetStatus(OrderStatus expected, OrderStatus next) {
+        return status.compareAndSet(expected, next);
     }
 
     public LocalDateTime getOrderTime() {
@@ -123,7 +133,7 @@ public class Order {
         invoice.append("Restaurant: ").append(restaurant.getName()).append("\n");
         invoice.append("Order Time: ").append(orderTime).append("\n");
         invoice.append("Delivery Address: ").append(deliveryAddress.getDescription()).append("\n");
-        invoice.append("Status: ").append(status.getDisplayName()).append("\n\n");
+        invoice.append("Status: ").append(getStatus().getDisplayName()).append("\n\n");
 
         invoice.append("Items:\n");
         for (OrderItem item : items) {
@@ -145,7 +155,7 @@ public class Order {
                 "id=" + id +
                 ", restaurant='" + restaurant.getName() + '\'' +
                 ", total=" + getFinalAmount() +
-                ", status=" + status +
+                ", status=" + getStatus() +
                 ", time=" + orderTime +
                 '}';
     }
@@ -1,14 +1,20 @@
 package ir.ac.kntu.models;
 
 import ir.ac.kntu.models.enums.FoodType;
+import ir.ac.kntu.models.enums.LedgerReason;
 import ir.ac.kntu.models.enums.RestaurantStatus;
+import ir.ac.kntu.utilities.Money;
+import ir.ac.kntu.utilities.NormalizedText;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class Restaurant {
+    private static final String WALLET_OWNER = "restaurant:";
+
     private int id;
     private String name;
+    private NormalizedText searchName;
     private final Manager manager;
     private String address;
     private int zoneNumber;
@@ -17,13 +23,14 @@ public class Restaurant {
     private String rejectionReason;
     private double rating;
     private int ratingCount;
-    private double wallet;
+    private final Wallet wallet;
     private List<Food> menu;
     private double baseDeliveryCost;
     private double perZoneCost;
 
     public Restaurant(String name, Manager manager, String address, int zoneNumber, List<FoodType> foodTypes) {
         this.name = name;
+        this.searchName = new NormalizedText(name);
         this.manager = manager;
         this.address = address;
         this.zoneNumber = zoneNumber;
@@ -31,7 +38,7 @@ public class Restaurant {
         this.status = RestaurantStatus.PENDING_REVIEW;
         this.rating = 0.0;
         this.ratingCount = 0;
-        this.wallet = 0.0;
+        this.wallet = new Wallet(() -> WALLET_OWNER + getName());
         this.menu = new ArrayList<>();
         this.baseDeliveryCost = 5000.0;
         this.perZoneCost = 1000.0;
@@ -40,6 +47,7 @@ public class Restaurant {
     public Restaurant(String name, Manager manager, String address, int zoneNumber, List<FoodType> foodTypes,
                       double baseDeliveryCost, double perZoneCost) {
         this.name = name;
+        this.searchName = new NormalizedText(name);
         this.manager = manager;
         this.address = address;
         this.zoneNumber = zoneNumber;
@@ -47,7 +55,7 @@ public class Restaurant {
         this.status = RestaurantStatus.PENDING_REVIEW;
         this.rating = 0.0;
         this.ratingCount = 0;
-        this.wallet = 0.0;
+        this.wallet = new Wallet(() -> WALLET_OWNER + getName());
         this.menu = new ArrayList<>();
         this.baseDeliveryCost = baseDeliveryCost;
         this.perZoneCost = perZoneCost;
@@ -57,6 +65,7 @@ public class Restaurant {
                       List<FoodType> foodTypes, RestaurantStatus status) {
         this.id = id;
         this.name = name;
+        this.searchName = new NormalizedText(name);
         this.manager = manager;
         this.address = address;
         this.zoneNumber = zoneNumber;
@@ -64,7 +73,7 @@ public class Restaurant {
         this.status = status;
         this.rating = 0.0;
         this.ratingCount = 0;
-        this.wallet = 0.0;
+        this.wallet = new Wallet(() -> WALLET_OWNER + getName());
         this.menu = new ArrayList<>();
         this.baseDeliveryCost = 5000.0;
         this.perZoneCost = 1000.0;
@@ -83,8 +92,14 @@ public class Restaurant {
         return name;
     }
 
+    // Normalized name and tokens for search, rebuilt only when the name changes
+    public NormalizedText getSearchName() {
+        return searchName;
+    }
+
     public void setName(String name) {
         this.name = name;
+        this.searchName = new NormalizedText(name);
     }
 
     public Manager getManager() {
@@ -151,12 +166,17 @@ public class Restaurant {
         this.ratingCount = ratingCount;
     }
 
+    // The balance in Toman; movements go through getWalletAccount()
     public double getWallet() {
-        return wallet;
+        return Money.toToman(wallet.getBalance());
     }
 
     public void setWallet(double wallet) {
-        this.wallet = wallet;
+        this.wallet.setBalance(Money.toMinor(wallet), LedgerReason.ADJUSTMENT);
+    }
+
+    public Wallet getWalletAccount() {
+        return wallet;
     }
 
     public List<Food> getMenu() {
@@ -211,7 +231,7 @@ public class Restaurant {
                 ", foodTypes=" + foodTypes +
                 ", status=" + status +
                 ", rating=" + String.format("%.1f", rating) +
-                ", wallet=" + wallet +
+                ", wallet=" + getWallet() +
                 '}';
     }
 }
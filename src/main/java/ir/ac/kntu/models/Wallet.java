@@ -0,0 +1,107 @@
+package ir.ac.kntu.models;
+
+import ir.ac.kntu.managers.WalletLedger;
+import ir.ac.kntu.models.enums.LedgerReason;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+ * Wallet
+ *
+ * A balance in minor units held in one atomic cell. Credits and debits are
+ * compare-and-set updates, so concurrent movements are never lost and a debit
+ * can never take the balance below zero. Every movement that changes the balance
+ * is appended to the ledger with the balance it left behind.
+ */
+public class Wallet {
+    private final long id;
+    private final AtomicLong balance;
+    private final WalletLedger ledger;
+    private final Supplier<String> owner;
+
+    public Wallet() {
+        this(WalletLedger.getInstance(), null);
+    }
+
+    public Wallet(WalletLedger ledger) {
+        this(ledger, null);
+    }
+
+    // The owner is asked for its name whenever a movement is published
+    public Wallet(Supplier<String> owner) {
+        this(WalletLedger.getInstance(), owner);
+    }
+
+    public Wallet(WalletLedger ledger, Supplier<String> owner) {
+        this.ledger = ledger;
+        this.id = ledger.newWalletId();
+        this.balance = new AtomicLong();
+        this.owner = owner;
+    }
+
+    // Only meaningful within this run; wallets are numbered afresh on every start
+    public long getId() {
+        return id;
+    }
+
+    // Names the wallet the same way across restarts, such as customer:09120000000
+    public String getOwner() {
+        return owner == null ? "wallet:" + id : owner.get();
+    }
+
+    public long getBalance() {
+        return balance.get();
+    }
+
+    public WalletLedger getLedger() {
+        return ledger;
+    }
+
+    public void credit(long amount, LedgerReason reason) {
+        LedgerEntry entry = creditWithoutPublishing(amount, reason);
+        if (entry != null) {
+            ledger.publish(this, entry);
+        }
+    }
+
+    /**
+     * Credits like credit() but leaves publishing the ledger entry to the caller, for
+     * callers that must not wait on event subscribers. Returns null for a zero amount.
+     */
+    public LedgerEntry creditWithoutPublishing(long amount, LedgerReason reason) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Credit must not be negative");
+        }
+        return amount == 0 ? null : ledger.append(id, amount, balance.addAndGet(amount), reason);
+    }
+
+    /**
+     * Takes the amount out if the balance covers it; the check and the debit are a
+     * single compare-and-set.
+     */
+    public boolean tryDebit(long amount, LedgerReason reason) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Debit must not be negative");
+        }
+        long current;
+        do {
+            current = balance.get();
+            if (current < amount) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - amount));
+        if (amount > 0) {
+            ledger.record(this, -amount, current - amount, reason);
+        }
+        return true;
+    }
+
+    // Sets the balance outright, recording the difference as one movement
+    public void setBalance(long newBalance, LedgerReason reason) {
+        long previous = balance.getAndSet(newBalance);
+        if (previous != newBalance) {
+            ledger.record(this, newBalance - previous, newBalance, reason);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ir.ac.kntu.models.enums;
+
+public enum LedgerReason {
+    TOP_UP("Top-up"),
+    CHECKOUT("Checkout"),
+    CHECKOUT_ROLLBACK("Checkout rollback"),
+    REFUND("Refund"),
+    DELIVERY_CREDIT("Delivery credit"),
+    ADJUSTMENT("Adjustment");
+
+    private final String displayName;
+
+    LedgerReason(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -1,5 +1,10 @@
 package ir.ac.kntu.models.enums;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     REGISTERED("Registered"),
     PREPARING("Preparing"),
@@ -7,6 +12,17 @@ public enum OrderStatus {
     DELIVERED("Delivered"),
     CANCELLED("Cancelled");
 
+    // The statuses each status may move to; delivered and cancelled orders are final
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(REGISTERED, EnumSet.of(PREPARING, CANCELLED));
+        TRANSITIONS.put(PREPARING, EnumSet.of(SENT));
+        TRANSITIONS.put(SENT, EnumSet.of(DELIVERED));
+        TRANSITIONS.put(DELIVERED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+    }
+
     private final String displayName;
 
     OrderStatus(String displayName) {
@@ -17,6 +33,10 @@ public enum OrderStatus {
         return displayName;
     }
 
+    public boolean canMoveTo(OrderStatus next) {
+        return TRANSITIONS.get(this).contains(next);
+    }
+
     @Override
     public String toString() {
         return displayName;
@@ -0,0 +1,7 @@
+package ir.ac.kntu.models.errors;
+
+public class ConnectionClosedError extends RuntimeException {
+    public ConnectionClosedError(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package ir.ac.kntu.server;
+
+/*
+ * ApiError
+ *
+ * A request that cannot be served, carrying the HTTP status to answer with.
+ */
+public class ApiError extends RuntimeException {
+    private final int status;
+
+    public ApiError(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,126 @@
+package ir.ac.kntu.server;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * ApiRequest
+ *
+ * One parsed API call: the method, the path below /api/ split into segments, the
+ * query and form parameters merged into one map, and the bearer token and
+ * idempotency key if sent.
+ */
+public class ApiRequest {
+    private static final String PREFIX = "/api/";
+    private static final String BEARER = "Bearer ";
+
+    private final String method;
+    private final String[] segments;
+    private final Map<String, String> params;
+    private final String token;
+    private final String idempotencyKey;
+
+    public ApiRequest(String method, String path, String token, String idempotencyKey) {
+        this.method = method;
+        String relative = path.startsWith(PREFIX) ? path.substring(PREFIX.length()) : "";
+        this.segments = relative.isEmpty() ? new String[0] : relative.split("/");
+        this.params = new HashMap<>();
+        this.token = token;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public static ApiRequest fromExchange(HttpExchange exchange, String body) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        String token = authorization != null && authorization.startsWith(BEARER)
+                ? authorization.substring(BEARER.length()).trim() : null;
+        ApiRequest request = new ApiRequest(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), token,
+                exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+        request.addParams(exchange.getRequestURI().getRawQuery());
+        request.addParams(body);
+        return request;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    public String segment(int index) {
+        return index < segments.length ? segments[index] : "";
+    }
+
+    public int intSegment(int index) {
+        try {
+            return Integer.parseInt(segment(index));
+        } catch (NumberFormatException e) {
+            throw new ApiError(404, "Unknown resource: " + segment(index));
+        }
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String param(String name) {
+        return params.get(name);
+    }
+
+    public String requireParam(String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new ApiError(400, "Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    public int intParam(String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ApiError(400, "Parameter " + name + " must be a whole number");
+        }
+    }
+
+    public int requireIntParam(String name) {
+        requireParam(name);
+        return intParam(name, 0);
+    }
+
+    // application/x-www-form-urlencoded, which is also the query string format
+    public final void addParams(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            if (!name.isEmpty()) {
+                params.put(decode(name), decode(value));
+            }
+        }
+    }
+
+    private static String decode(String text) {
+        try {
+            return URLDecoder.decode(text, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ApiError(400, "Malformed parameter encoding");
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package ir.ac.kntu.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ir.ac.kntu.helper.Logger;
+import ir.ac.kntu.utilities.JsonWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * ApiServer
+ *
+ * Embedded HTTP server for FoodliApi on the JDK's com.sun.net.httpserver. Responses
+ * always carry a Content-Length, so HTTP/1.1 clients keep their connections alive.
+ * Request bodies and query strings are size-limited before anything is parsed, and
+ * every worker thread reuses one JsonWriter for the responses it writes.
+ */
+public class ApiServer {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int MAX_BODY_BYTES = 16 * 1024;
+    public static final int MAX_QUERY_LENGTH = 2048;
+    private static final int BACKLOG = 1024;
+
+    private final int port;
+    private final int threads;
+    private final FoodliApi api;
+    private final ThreadLocal<JsonWriter> writers;
+    private final AtomicInteger threadCounter;
+    private HttpServer server;
+    private ExecutorService workers;
+
+    public ApiServer(int port, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        this.port = port;
+        this.threads = threads;
+        this.api = new FoodliApi();
+        this.writers = ThreadLocal.withInitial(() -> new JsonWriter(1024));
+        this.threadCounter = new AtomicInteger();
+    }
+
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server is already running");
+        }
+        workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "foodli-http-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.setExecutor(workers);
+        server.createContext("/api/", this::exchange);
+        server.start();
+        Logger.getInstance().info("API server listening on port " + getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting, lets exchanges in flight finish for up to the given time and
+     * then stops the workers.
+     */
+    public synchronized void stop(int graceSeconds) throws InterruptedException {
+        if (server == null) {
+            return;
+        }
+        server.stop(graceSeconds);
+        workers.shutdown();
+        workers.awaitTermination(graceSeconds, TimeUnit.SECONDS);
+        server = null;
+    }
+
+    private void exchange(HttpExchange exchange) throws IOException {
+        JsonWriter json = writers.get();
+        json.reset();
+        int status;
+        try {
+            String query = exchange.getRequestURI().getRawQuery();
+            if (query != null && query.length() > MAX_QUERY_LENGTH) {
+                throw new ApiError(414, "Query string too long");
+            }
+            ApiRequest request = ApiRequest.fromExchange(exchange, readBody(exchange));
+            status = api.handle(request, json);
+        } catch (ApiError e) {
+            status = writeError(json, e.getStatus(), e.getMessage());
+        } catch (RuntimeException e) {
+            // A bug or a race in a handler; the client still gets an answer instead of a dropped connection
+            Logger.getInstance().error("API " + exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath()
+                    + " failed: " + e);
+            status = writeError(json, 500, "Internal server error");
+        }
+        send(exchange, status, json.toBytes());
+    }
+
+    private static int writeError(JsonWriter json, int status, String message) {
+        json.reset();
+        json.beginObject().field("error", message).endObject();
+        return status;
+    }
+
+    // Reads at most MAX_BODY_BYTES; anything larger is refused and the connection dropped
+    private static String readBody(HttpExchange exchange) throws IOException {
+        String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (declared != null && parseLength(declared) > MAX_BODY_BYTES) {
+            exchange.getResponseHeaders().set("Connection", "close");
+            throw new ApiError(413, "Request body too large");
+        }
+        try (InputStream input = exchange.getRequestBody()) {
+            byte[] body = input.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                exchange.getResponseHeaders().set("Connection", "close");
+                throw new ApiError(413, "Request body too large");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static long parseLength(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ApiError(400, "Invalid Content-Length");
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+}
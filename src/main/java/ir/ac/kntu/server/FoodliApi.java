@@ -0,0 +1,358 @@
+package ir.ac.kntu.server;
+
+import ir.ac.kntu.managers.CartManager;
+import ir.ac.kntu.managers.OrderManager;
+import ir.ac.kntu.managers.RestaurantFilter;
+import ir.ac.kntu.managers.RestaurantManager;
+import ir.ac.kntu.managers.Session;
+import ir.ac.kntu.managers.SessionManager;
+import ir.ac.kntu.managers.UserManager;
+import ir.ac.kntu.models.Address;
+import ir.ac.kntu.models.Customer;
+import ir.ac.kntu.models.Food;
+import ir.ac.kntu.models.Order;
+import ir.ac.kntu.models.OrderItem;
+import ir.ac.kntu.models.Restaurant;
+import ir.ac.kntu.models.ShoppingCart;
+import ir.ac.kntu.models.Support;
+import ir.ac.kntu.models.User;
+import ir.ac.kntu.models.enums.FoodType;
+import ir.ac.kntu.models.enums.OrderStatus;
+import ir.ac.kntu.models.enums.RestaurantStatus;
+import ir.ac.kntu.models.enums.UserRole;
+import ir.ac.kntu.utilities.JsonWriter;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/*
+ * FoodliApi
+ *
+ * The JSON endpoints behind ApiServer. Each call is routed on its first path
+ * segment and answered through the same managers the console menus use; calls made
+ * with a session token run as that session's user, so cart and checkout act on the
+ * caller's own cart. Every method writes its body into the given writer and returns
+ * the HTTP status.
+ */
+public class FoodliApi {
+    private static final String GET = "GET";
+    private static final String POST = "POST";
+    private static final String ORDERS = "orders";
+    private static final String RESTAURANTS = "restaurants";
+    private static final String RESTAURANT_ID = "restaurantId";
+    private static final String NAME = "name";
+
+    private final RestaurantManager restaurantManager;
+    private final CartManager cartManager;
+    private final OrderManager orderManager;
+    private final SessionManager sessionManager;
+
+    public FoodliApi() {
+        restaurantManager = RestaurantManager.getInstance();
+        cartManager = CartManager.getInstance();
+        orderManager = OrderManager.getInstance();
+        sessionManager = SessionManager.getInstance();
+    }
+
+    public int handle(ApiRequest request, JsonWriter json) {
+        switch (request.segment(0)) {
+            case RESTAURANTS:
+                return restaurants(request, json);
+            case "login":
+                return login(request, json);
+            case "logout":
+                return logout(request, json);
+            case "cart":
+                return cart(request, json);
+            case "checkout":
+                return checkout(request, json);
+            case ORDERS:
+                return orders(request, json);
+            case "reports":
+                return report(request, json);
+            default:
+                throw new ApiError(404, "Unknown resource: " + request.segment(0));
+        }
+    }
+
+    // GET /api/restaurants?q=&type=&zone=&minRating=,  /api/restaurants/{id}/menu  and  /api/restaurants/suggest?q=
+    private int restaurants(ApiRequest request, JsonWriter json) {
+        expectMethod(request, GET);
+        if (request.segmentCount() == 3 && "menu".equals(request.segment(2))) {
+            return menu(request, json);
+        }
+        if (request.segmentCount() == 2 && "suggest".equals(request.segment(1))) {
+            return suggest(request, json);
+        }
+        if (request.segmentCount() != 1) {
+            throw new ApiError(404, "Unknown resource");
+        }
+
+        RestaurantFilter filter = filterOf(request);
+        String query = request.param("q");
+        List<Restaurant> found = query == null || query.isBlank()
+                ? restaurantManager.filterRestaurants(filter)
+                : restaurantManager.searchRestaurants(query, filter);
+        json.beginObject().name(RESTAURANTS).beginArray();
+        found.forEach(restaurant -> writeRestaurant(json, restaurant));
+        json.endArray().endObject();
+        return 200;
+    }
+
+    // Completions of a partly typed search, cheap enough to ask for on every keystroke
+    private int suggest(ApiRequest request, JsonWriter json) {
+        // A missing prefix suggests the best-rated names overall
+        json.beginObject().name("suggestions").beginArray();
+        restaurantManager.getSearchSuggestions(request.param("q")).forEach(json::value);
+        json.endArray().endObject();
+        return 200;
+    }
+
+    private int menu(ApiRequest request, JsonWriter json) {
+        Restaurant restaurant = approvedRestaurant(request.intSegment(1));
+        json.beginObject().name("restaurant");
+        writeRestaurant(json, restaurant);
+        json.name("menu").beginArray();
+        restaurant.getMenu().forEach(food -> writeFood(json, food));
+        json.endArray().endObject();
+        return 200;
+    }
+
+    private Restaurant approvedRestaurant(int id) {
+        Restaurant restaurant = restaurantManager.findRestaurantById(id);
+        if (restaurant == null || restaurant.getStatus() != RestaurantStatus.APPROVED) {
+            throw new ApiError(404, "No such restaurant");
+        }
+        return restaurant;
+    }
+
+    // POST /api/login  phone, password -> token
+    private int login(ApiRequest request, JsonWriter json) {
+        expectMethod(request, POST);
+        User user = UserManager.getInstance().authenticate(request.requireParam("phone"), request.requireParam("password"));
+        if (user == null) {
+            throw new ApiError(401, "Phone number or password is incorrect");
+        }
+        Session session = sessionManager.openSession(user);
+        json.beginObject()
+                .field("token", session.getToken())
+                .field("role", user.getRole().name())
+                .field(NAME, user.getName())
+                .endObject();
+        return 200;
+    }
+
+    private int logout(ApiRequest request, JsonWriter json) {
+        expectMethod(request, POST);
+        sessionManager.closeSession(request.getToken());
+        json.beginObject().field("loggedOut", true).endObject();
+        return 200;
+    }
+
+    // GET shows the cart, POST adds restaurantId/foodId/quantity, DELETE empties it
+    private int cart(ApiRequest request, JsonWriter json) {
+        requireCustomer(request);
+        ShoppingCart cart = asCaller(request, () -> {
+            if (POST.equals(request.getMethod())) {
+                addToCart(request);
+            } else if ("DELETE".equals(request.getMethod())) {
+                cartManager.clearCart();
+            } else {
+                expectMethod(request, GET);
+            }
+            return cartManager.getCurrentCart();
+        });
+        writeCart(json, cart);
+        return 200;
+    }
+
+    private void addToCart(ApiRequest request) {
+        Restaurant restaurant = approvedRestaurant(request.requireIntParam(RESTAURANT_ID));
+        int foodId = request.requireIntParam("foodId");
+        Food food = restaurant.getMenu().stream()
+                .filter(item -> item.getId() == foodId && item.isAvailable())
+                .findFirst()
+                .orElseThrow(() -> new ApiError(404, "No such food"));
+        int quantity = request.intParam("quantity", 1);
+        if (quantity <= 0) {
+            throw new ApiError(400, "Quantity must be positive");
+        }
+        if (cartManager.canAddToCart(restaurant)) {
+            throw new ApiError(409, "Cart holds items from another restaurant");
+        }
+        cartManager.addToCart(restaurant, food, quantity);
+    }
+
+    // POST /api/checkout  addressId, with an optional Idempotency-Key header for safe retries
+    private int checkout(ApiRequest request, JsonWriter json) {
+        expectMethod(request, POST);
+        Customer customer = requireCustomer(request);
+        Address address = customer.getAddressById(request.requireIntParam("addressId"));
+        if (address == null) {
+            throw new ApiError(404, "No such address");
+        }
+        Order order = asCaller(request, () -> cartManager.checkout(address, request.getIdempotencyKey()));
+        writeOrder(json, order);
+        return 201;
+    }
+
+    // GET /api/orders  and  GET /api/orders/{id}
+    private int orders(ApiRequest request, JsonWriter json) {
+        expectMethod(request, GET);
+        User user = requireUser(request);
+        if (request.segmentCount() == 1) {
+            json.beginObject().name(ORDERS).beginArray();
+            orderManager.getOrdersByCustomer(user).forEach(order -> writeOrder(json, order));
+            json.endArray().endObject();
+            return 200;
+        }
+        Order order = orderManager.findOrderById(request.intSegment(1));
+        if (order == null || !(user instanceof Support || order.getCustomer().equals(user))) {
+            throw new ApiError(404, "No such order");
+        }
+        writeOrder(json, order);
+        return 200;
+    }
+
+    // GET /api/reports/summary, for support staff
+    private int report(ApiRequest request, JsonWriter json) {
+        expectMethod(request, GET);
+        if (!(requireUser(request) instanceof Support) || !"summary".equals(request.segment(1))) {
+            throw new ApiError(404, "No such report");
+        }
+        json.beginObject().name(RESTAURANTS).beginObject()
+                .field("approved", restaurantManager.getApprovedRestaurants().size())
+                .field("pending", restaurantManager.getPendingRestaurants().size())
+                .endObject();
+
+        List<Order> allOrders = orderManager.getAllOrders();
+        double revenue = 0;
+        json.name(ORDERS).beginObject();
+        for (OrderStatus status : OrderStatus.values()) {
+            json.field(status.name().toLowerCase(Locale.ROOT), allOrders.stream().filter(order -> order.getStatus() == status).count());
+        }
+        for (Order order : allOrders) {
+            revenue += order.getStatus() == OrderStatus.DELIVERED ? order.getFinalAmount() : 0;
+        }
+        json.endObject().field("deliveredRevenue", revenue);
+
+        json.name("users").beginObject();
+        for (UserRole role : UserRole.values()) {
+            json.field(role.name().toLowerCase(Locale.ROOT), UserManager.getInstance().getUsersByRole(role).size());
+        }
+        json.endObject().endObject();
+        return 200;
+    }
+
+    private static RestaurantFilter filterOf(ApiRequest request) {
+        RestaurantFilter filter = new RestaurantFilter().withMinRating(request.intParam("minRating", 0));
+        String type = request.param("type");
+        if (type != null && !type.isBlank()) {
+            try {
+                filter.withFoodType(FoodType.valueOf(type.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new ApiError(400, "Unknown food type: " + type);
+            }
+        }
+        int zone = request.intParam("zone", -1);
+        if (zone >= 0) {
+            filter.inZone(zone);
+        }
+        return filter;
+    }
+
+    /**
+     * Runs the action as the request's user. A missing session is a 401; an
+     * IllegalStateException from the action is a domain conflict and becomes a 409.
+     */
+    private <T> T asCaller(ApiRequest request, Supplier<T> action) {
+        Session session = sessionManager.findSession(request.getToken());
+        if (session == null) {
+            throw new ApiError(401, "Session expired or unknown");
+        }
+        try {
+            return sessionManager.callAs(session, action);
+        } catch (IllegalStateException e) {
+            throw new ApiError(409, e.getMessage());
+        }
+    }
+
+    private User requireUser(ApiRequest request) {
+        Session session = sessionManager.findSession(request.getToken());
+        if (session == null) {
+            throw new ApiError(401, "Log in first");
+        }
+        return session.getUser();
+    }
+
+    private Customer requireCustomer(ApiRequest request) {
+        User user = requireUser(request);
+        if (!(user instanceof Customer)) {
+            throw new ApiError(403, "Only customers can do this");
+        }
+        return (Customer) user;
+    }
+
+    private static void expectMethod(ApiRequest request, String method) {
+        if (!method.equals(request.getMethod())) {
+            throw new ApiError(405, "Use " + method);
+        }
+    }
+
+    private static void writeRestaurant(JsonWriter json, Restaurant restaurant) {
+        json.beginObject()
+                .field("id", restaurant.getId())
+                .field(NAME, restaurant.getName())
+                .field("zone", restaurant.getZoneNumber())
+                .field("rating", restaurant.getRating())
+                .name("foodTypes").beginArray();
+        restaurant.getFoodTypes().forEach(type -> json.value(type.name()));
+        json.endArray().endObject();
+    }
+
+    private static void writeFood(JsonWriter json, Food food) {
+        json.beginObject()
+                .field("id", food.getId())
+                .field(NAME, food.getName())
+                .field("price", food.getPrice())
+                .field("category", food.getCategory().name())
+                .field("available", food.isAvailable())
+                .endObject();
+    }
+
+    private static void writeItems(JsonWriter json, List<OrderItem> items) {
+        json.name("items").beginArray();
+        for (OrderItem item : items) {
+            json.beginObject()
+                    .field("foodId", item.getFood().getId())
+                    .field(NAME, item.getFood().getName())
+                    .field("quantity", item.getQuantity())
+                    .field("unitPrice", item.getUnitPrice())
+                    .endObject();
+        }
+        json.endArray();
+    }
+
+    private static void writeCart(JsonWriter json, ShoppingCart cart) {
+        json.beginObject();
+        if (cart.isEmpty()) {
+            json.name(RESTAURANT_ID).nullValue();
+        } else {
+            json.field(RESTAURANT_ID, cart.getRestaurant().getId());
+        }
+        writeItems(json, cart.getItems());
+        json.field("total", cart.getTotal()).endObject();
+    }
+
+    private static void writeOrder(JsonWriter json, Order order) {
+        json.beginObject()
+                .field("id", order.getId())
+                .field(RESTAURANT_ID, order.getRestaurant().getId())
+                .field("status", order.getStatus().name());
+        writeItems(json, order.getItems());
+        json.field("deliveryCost", order.getDeliveryCost())
+                .field("total", order.getFinalAmount())
+                .endObject();
+    }
+}
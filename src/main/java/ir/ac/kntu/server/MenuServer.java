@@ -0,0 +1,179 @@
+package ir.ac.kntu.server;
+
+import ir.ac.kntu.handlers.MainMenu;
+import ir.ac.kntu.handlers.MenuHandler;
+import ir.ac.kntu.helper.Logger;
+import ir.ac.kntu.managers.InputManager;
+import ir.ac.kntu.managers.SessionManager;
+import ir.ac.kntu.models.errors.ConnectionClosedError;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * MenuServer
+ *
+ * Serves the console menus over TCP, one line of text per input. Every connection
+ * gets its own thread, with the menus, input, output and login session bound to it,
+ * and starts at the main menu exactly like the console does. Connections over the
+ * limit are turned away with a message. Connections that stay silent for the idle
+ * timeout are dropped. Shutdown stops accepting, gives open sessions time to finish
+ * and then closes what is left.
+ */
+public class MenuServer {
+    public static final int DEFAULT_PORT = 5050;
+    public static final int DEFAULT_MAX_CONNECTIONS = 256;
+    public static final int IDLE_TIMEOUT_MILLIS = (int) TimeUnit.MINUTES.toMillis(30);
+
+    private final int port;
+    private final int maxConnections;
+    private final Semaphore slots;
+    private final Set<Socket> openConnections;
+    private final AtomicInteger threadCounter;
+    private ExecutorService workers;
+    private ServerSocket serverSocket;
+    private Thread acceptThread;
+    private volatile boolean running;
+
+    public MenuServer(int port, int maxConnections) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("Connection limit must be positive");
+        }
+        this.port = port;
+        this.maxConnections = maxConnections;
+        this.slots = new Semaphore(maxConnections);
+        this.openConnections = ConcurrentHashMap.newKeySet();
+        this.threadCounter = new AtomicInteger();
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) {
+            throw new IllegalStateException("Server is already running");
+        }
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(port), maxConnections);
+        workers = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "foodli-client-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        acceptThread = new Thread(this::acceptLoop, "foodli-accept");
+        acceptThread.start();
+        Logger.getInstance().info("Menu server listening on port " + getPort());
+    }
+
+    // The bound port, useful when started on port 0
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getActiveConnections() {
+        return openConnections.size();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void awaitStop() throws InterruptedException {
+        acceptThread.join();
+    }
+
+    /**
+     * Stops accepting, waits up to the grace period for clients to leave and then
+     * closes the remaining connections.
+     */
+    public synchronized void shutdown(long graceMillis) throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        closeQuietly(serverSocket);
+        workers.shutdown();
+        if (!workers.awaitTermination(graceMillis, TimeUnit.MILLISECONDS)) {
+            // Closing a socket fails its pending read, which unwinds that client's menus
+            openConnections.forEach(MenuServer::closeQuietly);
+            workers.shutdownNow();
+            workers.awaitTermination(graceMillis, TimeUnit.MILLISECONDS);
+        }
+        acceptThread.join(graceMillis);
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                handOff(serverSocket.accept());
+            } catch (IOException e) {
+                if (running) {
+                    Logger.getInstance().error("Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handOff(Socket socket) {
+        if (!slots.tryAcquire()) {
+            reject(socket);
+            return;
+        }
+        openConnections.add(socket);
+        try {
+            workers.execute(() -> serve(socket));
+        } catch (RejectedExecutionException e) {
+            // Accepted just as the server began shutting down
+            openConnections.remove(socket);
+            slots.release();
+            closeQuietly(socket);
+        }
+    }
+
+    private void serve(Socket socket) {
+        InputManager inputManager = InputManager.getInstance();
+        Logger logger = Logger.getInstance();
+        try (socket; PrintStream output = new PrintStream(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            socket.setSoTimeout(IDLE_TIMEOUT_MILLIS);
+            inputManager.bindConnection(socket.getInputStream());
+            logger.bindConnection(output);
+            new MainMenu().enterMenu();
+        } catch (IOException | ConnectionClosedError e) {
+            // The client left or was disconnected; nothing to report to it
+        } finally {
+            SessionManager.getInstance().logout();
+            MenuHandler.release();
+            logger.unbindConnection();
+            inputManager.unbindConnection();
+            openConnections.remove(socket);
+            slots.release();
+        }
+    }
+
+    private static void reject(Socket socket) {
+        try (socket; PrintStream output = new PrintStream(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            output.println("Server is busy, please try again later.");
+        } catch (IOException e) {
+            // The client is gone already
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Closing during shutdown; nothing left to do
+        }
+    }
+}
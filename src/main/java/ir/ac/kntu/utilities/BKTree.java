@@ -0,0 +1,179 @@
+package ir.ac.kntu.utilities;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/*
+ * BKTree
+ *
+ * Burkhard-Keller tree keyed on the Levenshtein distance between normalized names.
+ * findWithin(query, k) only descends into children whose edge distance lies within
+ * k of the query's distance to the parent, so near-exact lookups ("did you mean")
+ * touch a small part of the tree.
+ *
+ * Removal leaves an empty node behind so the tree stays valid; once empty nodes
+ * outnumber live ones the tree is rebuilt from the remaining names.
+ */
+public class BKTree {
+    private Node root;
+    private int liveNodes;
+    private int emptyNodes;
+
+    public BKTree() {
+        this.root = null;
+        this.liveNodes = 0;
+        this.emptyNodes = 0;
+    }
+
+    public void add(String value) {
+        if (value == null) {
+            return;
+        }
+        String key = TextSimilarity.normalizeString(value);
+        if (root == null) {
+            root = new Node(key);
+        }
+
+        Node node = root;
+        int distance = TextSimilarity.levenshteinDistance(key, node.key);
+        while (distance != 0) {
+            Node child = node.children.get(distance);
+            if (child == null) {
+                child = new Node(key);
+                node.children.put(distance, child);
+            }
+            node = child;
+            distance = TextSimilarity.levenshteinDistance(key, node.key);
+        }
+        addToNode(node, value);
+    }
+
+    public void remove(String value) {
+        Node node = findNode(value);
+        if (node == null || !node.values.remove(value) || !node.values.isEmpty()) {
+            return;
+        }
+        liveNodes--;
+        emptyNodes++;
+        if (emptyNodes > liveNodes) {
+            rebuild();
+        }
+    }
+
+    public boolean contains(String value) {
+        Node node = findNode(value);
+        return node != null && node.values.contains(value);
+    }
+
+    public int size() {
+        return liveNodes;
+    }
+
+    // Nodes kept only to route lookups, reclaimed by the next rebuild
+    public int emptyNodeCount() {
+        return emptyNodes;
+    }
+
+    /**
+     * Returns every stored name within maxDistance edits of the query, closest first.
+     */
+    public List<String> findWithin(String query, int maxDistance) {
+        TreeMap<Integer, List<String>> byDistance = new TreeMap<>();
+        if (root == null || query == null) {
+            return new ArrayList<>();
+        }
+
+        String key = TextSimilarity.normalizeString(query);
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+
+            // Past this bound neither the node nor any of its children can match
+            int reach = node.maxEdge() + maxDistance;
+            int distance = TextSimilarity.levenshteinDistance(key, node.key, reach);
+            if (distance <= maxDistance && !node.values.isEmpty()) {
+                byDistance.computeIfAbsent(distance, bucket -> new ArrayList<>()).addAll(node.values);
+            }
+            for (Node child : node.children.subMap(distance - maxDistance, true,
+                    distance + maxDistance, true).values()) {
+                pending.push(child);
+            }
+        }
+
+        List<String> result = new ArrayList<>();
+        byDistance.values().forEach(result::addAll);
+        return result;
+    }
+
+    private void addToNode(Node node, String value) {
+        boolean wasEmpty = node.values.isEmpty();
+        if (!node.values.add(value) || !wasEmpty) {
+            return;
+        }
+        liveNodes++;
+        if (node.counted) {
+            emptyNodes--;
+        }
+        node.counted = true;
+    }
+
+    private Node findNode(String value) {
+        if (value == null) {
+            return null;
+        }
+        String key = TextSimilarity.normalizeString(value);
+        Node node = root;
+        while (node != null) {
+            int distance = TextSimilarity.levenshteinDistance(key, node.key);
+            if (distance == 0) {
+                return node;
+            }
+            node = node.children.get(distance);
+        }
+        return null;
+    }
+
+    private void rebuild() {
+        List<String> values = new ArrayList<>();
+        if (root != null) {
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                values.addAll(node.values);
+                node.children.values().forEach(pending::push);
+            }
+        }
+
+        root = null;
+        liveNodes = 0;
+        emptyNodes = 0;
+        values.forEach(this::add);
+    }
+
+    private static class Node {
+        private final String key;
+        private final Set<String> values;
+        private final NavigableMap<Integer, Node> children;
+        private boolean counted;
+
+        private Node(String key) {
+            this.key = key;
+            this.values = new LinkedHashSet<>();
+            this.children = new TreeMap<>();
+            this.counted = false;
+        }
+
+        private int maxEdge() {
+            return children.isEmpty() ? 0 : children.lastKey();
+        }
+    }
+
+}
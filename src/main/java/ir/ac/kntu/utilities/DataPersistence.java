@@ -33,6 +33,8 @@ public class DataPersistence {
         System.out.println("Saving data to CSV files...");
 
         try {
+            // Pending delivery credits are settled first so the saved wallets are exact
+            SettlementEngine.getInstance().flushAll();
             saveUsers();
             saveRestaurants();
             saveOrders();
@@ -0,0 +1,166 @@
+package ir.ac.kntu.utilities;
+
+/*
+ * EditDistance
+ *
+ * Allocation-free Levenshtein kernel behind TextSimilarity.levenshteinDistance.
+ * - Myers' bit-vector algorithm when the shorter string fits in a 64-bit word
+ * - Two-row dynamic programming limited to a diagonal band otherwise
+ * Both stop as soon as the distance is known to exceed maxDistance.
+ * Scratch buffers are per thread and reused, so a comparison allocates nothing.
+ */
+public final class EditDistance {
+    private static final int WORD_SIZE = 64;
+    private static final int ASCII_SIZE = 128;
+
+    private static final ThreadLocal<long[]> ASCII_MASKS = ThreadLocal.withInitial(() -> new long[ASCII_SIZE]);
+    private static final ThreadLocal<int[][]> ROWS = ThreadLocal.withInitial(() -> new int[2][WORD_SIZE * 2]);
+
+    private EditDistance() {
+        // Static helpers only
+    }
+
+    /**
+     * Returns the edit distance between the two strings, or maxDistance + 1 once it is
+     * known to be larger than maxDistance. Null is treated as the empty string.
+     */
+    public static int distance(String str1, String str2, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("maxDistance must not be negative");
+        }
+        String first = str1 == null ? "" : str1;
+        String second = str2 == null ? "" : str2;
+
+        // The shorter string is the bit-vector pattern, the longer one is scanned
+        if (first.length() <= second.length()) {
+            return boundedDistance(first, second, maxDistance);
+        }
+        return boundedDistance(second, first, maxDistance);
+    }
+
+    private static int boundedDistance(String pattern, String text, int maxDistance) {
+        // The distance never exceeds the longer length, so clamping keeps the result exact
+        int limit = Math.min(maxDistance, text.length());
+        if (text.length() - pattern.length() > limit) {
+            return limit + 1;
+        }
+        if (pattern.isEmpty()) {
+            return text.length();
+        }
+        if (pattern.length() <= WORD_SIZE) {
+            return myersDistance(pattern, text, limit);
+        }
+        return bandedDistance(pattern, text, limit);
+    }
+
+    private static int myersDistance(String pattern, String text, int limit) {
+        long[] masks = ASCII_MASKS.get();
+        int length = pattern.length();
+        for (int i = 0; i < length; i++) {
+            char current = pattern.charAt(i);
+            if (current < ASCII_SIZE) {
+                masks[current] |= 1L << i;
+            }
+        }
+
+        int result = myersScan(pattern, text, limit, masks);
+
+        for (int i = 0; i < length; i++) {
+            char current = pattern.charAt(i);
+            if (current < ASCII_SIZE) {
+                masks[current] = 0L;
+            }
+        }
+        return result;
+    }
+
+    private static int myersScan(String pattern, String text, int limit, long[] masks) {
+        long lastBit = 1L << (pattern.length() - 1);
+        long verticalPositive = -1L;
+        long verticalNegative = 0L;
+        int score = pattern.length();
+        int textLength = text.length();
+
+        for (int j = 0; j < textLength; j++) {
+            long equal = matchMask(pattern, text.charAt(j), masks);
+            long vertical = equal | verticalNegative;
+            long horizontal = (((equal & verticalPositive) + verticalPositive) ^ verticalPositive) | equal;
+            long horizontalPositive = verticalNegative | ~(horizontal | verticalPositive);
+            long horizontalNegative = verticalPositive & horizontal;
+
+            if ((horizontalPositive & lastBit) != 0) {
+                score++;
+            } else if ((horizontalNegative & lastBit) != 0) {
+                score--;
+            }
+
+            // Each remaining column can lower the score by at most one
+            if (score - (textLength - j - 1) > limit) {
+                return limit + 1;
+            }
+
+            horizontalPositive = (horizontalPositive << 1) | 1L;
+            horizontalNegative <<= 1;
+            verticalPositive = horizontalNegative | ~(vertical | horizontalPositive);
+            verticalNegative = horizontalPositive & vertical;
+        }
+        return score;
+    }
+
+    private static long matchMask(String pattern, char current, long[] masks) {
+        if (current < ASCII_SIZE) {
+            return masks[current];
+        }
+        long mask = 0L;
+        for (int i = 0; i < pattern.length(); i++) {
+            if (pattern.charAt(i) == current) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    private static int bandedDistance(String pattern, String text, int limit) {
+        int columns = text.length();
+        int[][] rows = rowsFor(columns + 2);
+        int outside = limit + 1;
+
+        for (int j = 0; j <= columns; j++) {
+            rows[0][j] = Math.min(j, outside);
+        }
+        rows[0][columns + 1] = outside;
+
+        for (int i = 1; i <= pattern.length(); i++) {
+            int[] previous = rows[(i - 1) & 1];
+            int[] current = rows[i & 1];
+            char patternChar = pattern.charAt(i - 1);
+
+            // Cells further than limit from the diagonal can only exceed limit
+            int from = Math.max(1, i - limit);
+            int to = Math.min(columns, i + limit);
+            current[from - 1] = from == 1 ? Math.min(i, outside) : outside;
+
+            int rowMin = current[from - 1];
+            for (int j = from; j <= to; j++) {
+                int cost = patternChar == text.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            current[to + 1] = outside;
+
+            if (rowMin > limit) {
+                return outside;
+            }
+        }
+        return Math.min(rows[pattern.length() & 1][columns], outside);
+    }
+
+    private static int[][] rowsFor(int size) {
+        int[][] rows = ROWS.get();
+        if (rows[0].length < size) {
+            rows = new int[][] {new int[size], new int[size]};
+            ROWS.set(rows);
+        }
+        return rows;
+    }
+}
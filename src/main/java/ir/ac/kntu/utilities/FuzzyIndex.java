@@ -0,0 +1,133 @@
+package ir.ac.kntu.utilities;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * FuzzyIndex
+ *
+ * Character-trigram index over a set of names. Before the expensive Levenshtein/Jaccard
+ * scoring runs, candidates that share too few trigrams with the query are dropped.
+ *
+ * The threshold is the fraction of the query's trigrams a candidate must contain:
+ * lower values keep more candidates (better recall for heavy typos), higher values
+ * prune harder (lower latency on large catalogs). Candidates come back with the
+ * ones sharing the most trigrams first, then by name.
+ */
+public class FuzzyIndex {
+    public static final double DEFAULT_THRESHOLD = 0.25;
+
+    private final Map<String, Set<String>> postings;
+    private final Set<String> entries;
+    private double threshold;
+
+    public FuzzyIndex() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    public FuzzyIndex(double threshold) {
+        this.postings = new HashMap<>();
+        this.entries = new LinkedHashSet<>();
+        setThreshold(threshold);
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(double threshold) {
+        if (threshold < 0.0 || threshold > 1.0) {
+            throw new IllegalArgumentException("Threshold must be between 0 and 1");
+        }
+        this.threshold = threshold;
+    }
+
+    public void add(String text) {
+        if (text == null || !entries.add(text)) {
+            return;
+        }
+        for (String gram : trigrams(text)) {
+            postings.computeIfAbsent(gram, key -> new LinkedHashSet<>()).add(text);
+        }
+    }
+
+    public void remove(String text) {
+        if (text == null || !entries.remove(text)) {
+            return;
+        }
+        for (String gram : trigrams(text)) {
+            Set<String> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(text);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    public boolean contains(String text) {
+        return entries.contains(text);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public List<String> candidates(String query) {
+        if (query == null) {
+            return new ArrayList<>();
+        }
+
+        Set<String> queryGrams = trigrams(query);
+        if (queryGrams.isEmpty()) {
+            return new ArrayList<>(entries);
+        }
+
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            Set<String> posting = postings.get(gram);
+            if (posting != null) {
+                for (String text : posting) {
+                    shared.merge(text, 1, Integer::sum);
+                }
+            }
+        }
+
+        int required = Math.max(1, (int) Math.ceil(threshold * queryGrams.size()));
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            if (entry.getValue() >= required) {
+                result.add(entry.getKey());
+            }
+        }
+        // A fixed order, so candidates that score alike downstream rank the same on every run
+        result.sort(Comparator.comparing((String text) -> shared.get(text)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        return result;
+    }
+
+    public List<TextSimilarity.SearchResult> findBestMatches(String query, int maxResults) {
+        return TextSimilarity.findBestMatches(query, candidates(query), maxResults);
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        String normalized = TextSimilarity.normalizeString(text);
+        if (normalized.isEmpty()) {
+            return grams;
+        }
+
+        // Pad so that word boundaries and very short strings still yield trigrams
+        String padded = " " + normalized.replaceAll("\\s+", " ") + " ";
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
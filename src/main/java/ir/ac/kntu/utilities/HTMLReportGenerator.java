@@ -2,6 +2,7 @@ package ir.ac.kntu.utilities;
 
 import ir.ac.kntu.managers.OrderManager;
 import ir.ac.kntu.managers.RestaurantManager;
+import ir.ac.kntu.managers.SettlementEngine;
 import ir.ac.kntu.models.Order;
 import ir.ac.kntu.models.OrderItem;
 import ir.ac.kntu.models.Restaurant;
@@ -23,6 +24,7 @@ public class HTMLReportGenerator {
 
     public static void generateRestaurantReport(Restaurant restaurant, String filename) {
         createReportsDirectory();
+        SettlementEngine.getInstance().flush(restaurant);
 
         String html = buildRestaurantReportHTML(restaurant);
         writeToFile(filename, html);
@@ -30,6 +32,7 @@ public class HTMLReportGenerator {
 
     public static void generateSystemReport(String filename) {
         createReportsDirectory();
+        SettlementEngine.getInstance().flushAll();
 
         String html = buildSystemReportHTML();
         writeToFile(filename, html);
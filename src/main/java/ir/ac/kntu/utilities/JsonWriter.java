@@ -0,0 +1,206 @@
+package ir.ac.kntu.utilities;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+ * JsonWriter
+ *
+ * Streaming JSON writer over one StringBuilder. Commas and nesting are tracked
+ * with a flag per open container, values are escaped in place and numbers are
+ * appended without boxing, so a response costs little more than its own text.
+ * The writer can be reset and reused for the next response on the same thread.
+ */
+public class JsonWriter {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    // Doubles up to this size that hold a whole number are written without a fraction
+    private static final double MAX_EXACT_LONG = 1e15;
+
+    private final StringBuilder out;
+    private boolean[] hasElements;
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter() {
+        this(256);
+    }
+
+    public JsonWriter(int capacity) {
+        this.out = new StringBuilder(capacity);
+        this.hasElements = new boolean[8];
+    }
+
+    public JsonWriter beginObject() {
+        beforeValue();
+        out.append('{');
+        push();
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        return pop('}');
+    }
+
+    public JsonWriter beginArray() {
+        beforeValue();
+        out.append('[');
+        push();
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        return pop(']');
+    }
+
+    public JsonWriter name(String name) {
+        if (depth == 0) {
+            throw new IllegalStateException("Names are only allowed inside an object");
+        }
+        separate();
+        appendString(name);
+        out.append(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        appendString(value);
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        beforeValue();
+        out.append(value);
+        return this;
+    }
+
+    public JsonWriter value(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return nullValue();
+        }
+        beforeValue();
+        if (value == Math.rint(value) && Math.abs(value) < MAX_EXACT_LONG) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        beforeValue();
+        out.append(value);
+        return this;
+    }
+
+    public JsonWriter nullValue() {
+        beforeValue();
+        out.append("null");
+        return this;
+    }
+
+    public JsonWriter field(String name, String value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(String name, long value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(String name, double value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(String name, boolean value) {
+        return name(name).value(value);
+    }
+
+    public void reset() {
+        out.setLength(0);
+        Arrays.fill(hasElements, false);
+        depth = 0;
+        afterName = false;
+    }
+
+    public byte[] toBytes() {
+        return toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+        } else {
+            separate();
+        }
+    }
+
+    private void separate() {
+        if (depth > 0) {
+            if (hasElements[depth]) {
+                out.append(',');
+            }
+            hasElements[depth] = true;
+        }
+    }
+
+    private void push() {
+        depth++;
+        if (depth == hasElements.length) {
+            hasElements = Arrays.copyOf(hasElements, depth * 2);
+        }
+        hasElements[depth] = false;
+    }
+
+    private JsonWriter pop(char close) {
+        if (depth == 0 || afterName) {
+            throw new IllegalStateException("Nothing open to close");
+        }
+        depth--;
+        out.append(close);
+        return this;
+    }
+
+    private void appendString(String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char current = value.charAt(i);
+            if (current == '"' || current == '\\') {
+                out.append('\\').append(current);
+            } else if (current < 0x20 || current == '\u2028' || current == '\u2029') {
+                appendEscaped(current);
+            } else {
+                out.append(current);
+            }
+        }
+        out.append('"');
+    }
+
+    private void appendEscaped(char current) {
+        switch (current) {
+            case '\n':
+                out.append("\\n");
+                break;
+            case '\r':
+                out.append("\\r");
+                break;
+            case '\t':
+                out.append("\\t");
+                break;
+            default:
+                // Other control characters, plus the two separators JavaScript treats as line breaks
+                out.append("\\u")
+                        .append(HEX[(current >> 12) & 0xF]).append(HEX[(current >> 8) & 0xF])
+                        .append(HEX[(current >> 4) & 0xF]).append(HEX[current & 0xF]);
+                break;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ir.ac.kntu.utilities;
+
+/*
+ * Money
+ *
+ * Conversions between Toman amounts as the menus show them and the fixed-point
+ * minor units wallets are kept in. One Toman is a hundred minor units, so sums
+ * of prices and delivery costs add up exactly.
+ */
+public final class Money {
+    public static final long MINOR_PER_TOMAN = 100;
+
+    private Money() {
+    }
+
+    public static long toMinor(double toman) {
+        return Math.round(toman * MINOR_PER_TOMAN);
+    }
+
+    public static double toToman(long minor) {
+        return (double) minor / MINOR_PER_TOMAN;
+    }
+}
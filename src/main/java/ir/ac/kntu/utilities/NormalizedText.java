@@ -0,0 +1,51 @@
+package ir.ac.kntu.utilities;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * NormalizedText
+ *
+ * A string together with the normalized form and token set that the similarity
+ * functions derive from it. Building these once per candidate instead of on every
+ * comparison removes the regex work from the scoring loop.
+ */
+public final class NormalizedText {
+    private final String text;
+    private final String normalized;
+    private final Set<String> tokens;
+
+    public NormalizedText(String text) {
+        this.text = text;
+        this.normalized = text == null ? "" : TextSimilarity.normalizeString(text);
+        this.tokens = text == null ? Collections.emptySet()
+                : Collections.unmodifiableSet(TextSimilarity.tokenizeAndNormalize(text));
+    }
+
+    public static NormalizedText[] normalizeAll(List<String> texts) {
+        NormalizedText[] result = new NormalizedText[texts.size()];
+        int index = 0;
+        for (String text : texts) {
+            result[index++] = text == null ? null : new NormalizedText(text);
+        }
+        return result;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getNormalized() {
+        return normalized;
+    }
+
+    public Set<String> getTokens() {
+        return tokens;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
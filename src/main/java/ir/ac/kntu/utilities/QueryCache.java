@@ -0,0 +1,155 @@
+package ir.ac.kntu.utilities;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/*
+ * QueryCache
+ *
+ * Bounded, thread-safe LRU cache for query results. Every entry remembers the
+ * catalog version it was computed against; a lookup with a newer version, or after
+ * the TTL has passed, is a miss and drops the entry. Hits, misses and LRU
+ * evictions are counted for monitoring.
+ */
+public class QueryCache<V> {
+    public static final int DEFAULT_MAX_SIZE = 256;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final LinkedHashMap<String, Entry<V>> entries;
+    private final LongSupplier clock;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private int maxSize;
+    private long ttlNanos;
+
+    public QueryCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TTL_MILLIS, System::nanoTime);
+    }
+
+    public QueryCache(int maxSize, long ttlMillis, LongSupplier clock) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.clock = clock;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        configure(maxSize, ttlMillis);
+    }
+
+    /**
+     * Sets the capacity and the time to live; a TTL of zero keeps entries until they are invalidated.
+     */
+    public final synchronized void configure(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        if (ttlMillis < 0) {
+            throw new IllegalArgumentException("TTL must not be negative");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        evictOverflow();
+    }
+
+    public synchronized V get(String key, long version) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.version != version || isExpired(entry)) {
+            entries.remove(key);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    public synchronized void put(String key, long version, V value) {
+        entries.put(key, new Entry<>(value, version, clock.getAsLong()));
+        evictOverflow();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size());
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return ttlNanos > 0 && clock.getAsLong() - entry.createdAt >= ttlNanos;
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long version;
+        private final long createdAt;
+
+        private Entry(V value, long version, long createdAt) {
+            this.value = value;
+            this.version = version;
+            this.createdAt = createdAt;
+        }
+    }
+
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+
+        public Stats(long hits, long misses, long evictions, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d, evictions=%d, size=%d, hitRate=%.2f",
+                    hits, misses, evictions, size, getHitRate());
+        }
+    }
+}
@@ -97,8 +97,7 @@ public class RandomDataGenerator {
 
                 double rating = 3.0 + random.nextDouble() * 2.0;
                 int ratingCount = random.nextInt(100) + 10;
-                restaurant.setRating(rating);
-                restaurant.setRatingCount(ratingCount);
+                restaurantManager.setRating(restaurant, rating, ratingCount);
 
                 int menuSize = random.nextInt(6) + 3;
                 for (int j = 0; j < menuSize; j++) {
@@ -150,7 +149,6 @@ public class RandomDataGenerator {
     }
 
     private static void generateOrders(int count) {
-        OrderManager orderManager = OrderManager.getInstance();
         RestaurantManager restaurantManager = RestaurantManager.getInstance();
         UserManager userManager = UserManager.getInstance();
 
@@ -165,6 +163,15 @@ public class RandomDataGenerator {
             return;
         }
 
+        int placed = generateOrders(count, customers, restaurants);
+        if (placed < count) {
+            System.out.println((count - placed) + " orders were skipped (empty menus or full restaurant intakes)");
+        }
+    }
+
+    // Places up to count random orders among the given customers and restaurants; returns how many were placed
+    public static int generateOrders(int count, List<Customer> customers, List<Restaurant> restaurants) {
+        int placed = 0;
         for (int i = 0; i < count; i++) {
             Customer customer = customers.get(random.nextInt(customers.size()));
             Restaurant restaurant = restaurants.get(random.nextInt(restaurants.size()));
@@ -173,46 +180,61 @@ public class RandomDataGenerator {
                 continue;
             }
 
-            List<OrderItem> orderItems = new ArrayList<>();
-            int itemCount = random.nextInt(4) + 1;
-
-            for (int j = 0; j < itemCount; j++) {
-                List<Food> availableFoods = restaurant.getMenu().stream()
-                        .filter(Food::isAvailable)
-                        .toList();
-
-                if (!availableFoods.isEmpty()) {
-                    Food food = availableFoods.get(random.nextInt(availableFoods.size()));
-                    int quantity = random.nextInt(3) + 1;
-                    orderItems.add(new OrderItem(food, quantity));
-                }
-            }
-
+            List<OrderItem> orderItems = randomOrderItems(restaurant);
             if (orderItems.isEmpty()) {
                 continue;
             }
 
             Address deliveryAddress = customer.getAddresses().get(random.nextInt(customer.getAddresses().size()));
-
             double deliveryCost = restaurant.getDeliveryCost(deliveryAddress.getZoneNumber());
 
-            Order order = orderManager.createOrder(customer, restaurant, orderItems, deliveryCost, deliveryAddress);
+            Order order;
+            try {
+                order = OrderManager.getInstance().createOrder(customer, restaurant, orderItems, deliveryCost, deliveryAddress);
+            } catch (IllegalStateException e) {
+                // The restaurant's intake is full of new orders; leave this one out
+                continue;
+            }
+            advanceRandomly(order);
+            placed++;
+        }
+        return placed;
+    }
+
+    private static List<OrderItem> randomOrderItems(Restaurant restaurant) {
+        List<OrderItem> orderItems = new ArrayList<>();
+        int itemCount = random.nextInt(4) + 1;
+
+        for (int j = 0; j < itemCount; j++) {
+            List<Food> availableFoods = restaurant.getMenu().stream()
+                    .filter(Food::isAvailable)
+                    .toList();
 
-            int statusRandom = random.nextInt(10);
-            if (statusRandom < 3) {
-                orderManager.updateOrderStatus(order, OrderStatus.CANCELLED);
-            } else if (statusRandom < 7) {
-                orderManager.updateOrderStatus(order, OrderStatus.PREPARING);
+            if (!availableFoods.isEmpty()) {
+                Food food = availableFoods.get(random.nextInt(availableFoods.size()));
+                int quantity = random.nextInt(3) + 1;
+                orderItems.add(new OrderItem(food, quantity));
+            }
+        }
+        return orderItems;
+    }
+
+    private static void advanceRandomly(Order order) {
+        OrderManager orderManager = OrderManager.getInstance();
+        int statusRandom = random.nextInt(10);
+        if (statusRandom < 3) {
+            orderManager.updateOrderStatus(order, OrderStatus.CANCELLED);
+        } else if (statusRandom < 7) {
+            orderManager.updateOrderStatus(order, OrderStatus.PREPARING);
+            if (random.nextBoolean()) {
+                orderManager.updateOrderStatus(order, OrderStatus.SENT);
                 if (random.nextBoolean()) {
-                    orderManager.updateOrderStatus(order, OrderStatus.SENT);
+                    orderManager.updateOrderStatus(order, OrderStatus.DELIVERED);
                     if (random.nextBoolean()) {
-                        orderManager.updateOrderStatus(order, OrderStatus.DELIVERED);
-                        if (random.nextBoolean()) {
-                            int rating = random.nextInt(5) + 1; // 1-5 stars
-                            String comment = "Good experience with the food!";
-                            orderManager.addOrderReview(order, rating, comment);
-                            restaurant.addRating(rating);
-                        }
+                        int rating = random.nextInt(5) + 1; // 1-5 stars
+                        String comment = "Good experience with the food!";
+                        orderManager.addOrderReview(order, rating, comment);
+                        RestaurantManager.getInstance().addRating(order.getRestaurant(), rating);
                     }
                 }
             }
@@ -224,10 +246,16 @@ public class RandomDataGenerator {
 
         RestaurantManager.getInstance().getAllRestaurants().clear();
         OrderManager.getInstance().getAllOrders().clear();
-        CartManager.getInstance().clearCart();
+        CartManager.getInstance().clearAllCarts();
+        // getAllRestaurants() hands back a copy, so restaurants and their delivered orders outlive
+        // this; their pending credits are paid out rather than thrown away
+        SettlementEngine.getInstance().flushAll();
+        SettlementEngine.getInstance().clear();
+        // Support staff keep their wallets, so history is folded into opening balances, not dropped
+        WalletLedger.getInstance().checkpoint();
 
         UserManager userManager = UserManager.getInstance();
-        userManager.getUsers().removeIf(user ->
+        userManager.removeUsers(user ->
                 !(user instanceof Support));
 
         System.out.println("All test data cleared!");
@@ -0,0 +1,231 @@
+package ir.ac.kntu.utilities;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/*
+ * SpellingDictionary
+ *
+ * Symmetric-delete (SymSpell style) spelling corrector over name tokens.
+ * Every known token is stored under each string obtained by deleting up to
+ * maxEditDistance characters from its first prefixLength characters. A misspelled
+ * token is corrected by generating its own deletes and looking them up, so no
+ * candidate outside the edit budget is ever compared.
+ *
+ * Memory grows with the number of deletes per token, which prefixLength caps.
+ * Tokens are reference counted so names can be added and removed incrementally.
+ */
+public class SpellingDictionary {
+    public static final int DEFAULT_MAX_EDIT_DISTANCE = 2;
+    public static final int DEFAULT_PREFIX_LENGTH = 7;
+
+    private final NavigableMap<String, Integer> words;
+    private final Map<String, Set<String>> deletes;
+    private int maxEditDistance;
+    private int prefixLength;
+
+    public SpellingDictionary() {
+        this(DEFAULT_MAX_EDIT_DISTANCE, DEFAULT_PREFIX_LENGTH);
+    }
+
+    public SpellingDictionary(int maxEditDistance, int prefixLength) {
+        this.words = new TreeMap<>();
+        this.deletes = new HashMap<>();
+        configure(maxEditDistance, prefixLength);
+    }
+
+    public int getMaxEditDistance() {
+        return maxEditDistance;
+    }
+
+    public int getPrefixLength() {
+        return prefixLength;
+    }
+
+    /**
+     * Changes the edit budget and prefix length; the delete table is rebuilt from the known tokens.
+     */
+    public final void configure(int maxEditDistance, int prefixLength) {
+        if (maxEditDistance < 0) {
+            throw new IllegalArgumentException("Max edit distance must not be negative");
+        }
+        if (prefixLength <= maxEditDistance) {
+            throw new IllegalArgumentException("Prefix length must be greater than max edit distance");
+        }
+        this.maxEditDistance = maxEditDistance;
+        this.prefixLength = prefixLength;
+
+        deletes.clear();
+        for (String word : words.keySet()) {
+            indexDeletes(word);
+        }
+    }
+
+    public void addName(String name) {
+        for (String token : tokens(name)) {
+            if (words.merge(token, 1, Integer::sum) == 1) {
+                indexDeletes(token);
+            }
+        }
+    }
+
+    public void removeName(String name) {
+        for (String token : tokens(name)) {
+            Integer count = words.get(token);
+            if (count == null) {
+                continue;
+            }
+            if (count > 1) {
+                words.put(token, count - 1);
+            } else {
+                words.remove(token);
+                unindexDeletes(token);
+            }
+        }
+    }
+
+    public boolean containsWord(String word) {
+        return words.containsKey(word);
+    }
+
+    public int wordCount() {
+        return words.size();
+    }
+
+    public int deleteCount() {
+        return deletes.size();
+    }
+
+    /**
+     * Returns the closest known token, or the token itself when it is known, is the
+     * beginning of a known token (still being typed) or has no match within the budget.
+     * Ties prefer the token used by more names, then alphabetical order.
+     */
+    public String correct(String token) {
+        if (token == null || token.isEmpty() || isKnownPrefix(token)) {
+            return token;
+        }
+
+        String best = token;
+        int bestDistance = maxEditDistance + 1;
+        for (String candidate : candidatesFor(token)) {
+            int distance = TextSimilarity.levenshteinDistance(token, candidate, maxEditDistance);
+            if (distance > maxEditDistance) {
+                continue;
+            }
+            if (distance < bestDistance || distance == bestDistance && isPreferred(candidate, best)) {
+                best = candidate;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Corrects every token of the query. The query is returned unchanged when no token needed
+     * fixing, otherwise the normalized tokens are joined with single spaces.
+     */
+    public String correctQuery(String query) {
+        if (query == null) {
+            return null;
+        }
+        List<String> corrected = new ArrayList<>();
+        boolean changed = false;
+        for (String token : tokens(query)) {
+            String fixed = correct(token);
+            changed |= !fixed.equals(token);
+            corrected.add(fixed);
+        }
+        return changed ? String.join(" ", corrected) : query;
+    }
+
+    private Set<String> candidatesFor(String token) {
+        Set<String> candidates = new HashSet<>();
+        for (String variant : deletesOf(prefix(token))) {
+            Set<String> matches = deletes.get(variant);
+            if (matches != null) {
+                candidates.addAll(matches);
+            }
+        }
+        return candidates;
+    }
+
+    private boolean isKnownPrefix(String token) {
+        String next = words.ceilingKey(token);
+        return next != null && next.startsWith(token);
+    }
+
+    private boolean isPreferred(String candidate, String current) {
+        Integer currentCount = words.get(current);
+        if (currentCount == null) {
+            return true;
+        }
+        int candidateCount = words.get(candidate);
+        if (candidateCount != currentCount) {
+            return candidateCount > currentCount;
+        }
+        return candidate.compareTo(current) < 0;
+    }
+
+    private void indexDeletes(String word) {
+        for (String variant : deletesOf(prefix(word))) {
+            deletes.computeIfAbsent(variant, key -> new HashSet<>()).add(word);
+        }
+    }
+
+    private void unindexDeletes(String word) {
+        for (String variant : deletesOf(prefix(word))) {
+            Set<String> owners = deletes.get(variant);
+            if (owners != null) {
+                owners.remove(word);
+                if (owners.isEmpty()) {
+                    deletes.remove(variant);
+                }
+            }
+        }
+    }
+
+    private String prefix(String word) {
+        return word.length() > prefixLength ? word.substring(0, prefixLength) : word;
+    }
+
+    // The word itself plus every string reachable by deleting up to maxEditDistance characters
+    private Set<String> deletesOf(String word) {
+        Set<String> result = new LinkedHashSet<>();
+        result.add(word);
+        Set<String> frontier = result;
+        for (int round = 0; round < maxEditDistance; round++) {
+            Set<String> next = new LinkedHashSet<>();
+            for (String current : frontier) {
+                for (int i = 0; i < current.length(); i++) {
+                    next.add(current.substring(0, i) + current.substring(i + 1));
+                }
+            }
+            next.removeAll(result);
+            result.addAll(next);
+            frontier = next;
+        }
+        return result;
+    }
+
+    private static List<String> tokens(String text) {
+        List<String> result = new ArrayList<>();
+        if (text == null) {
+            return result;
+        }
+        for (String word : text.toLowerCase().split("\\s+")) {
+            String token = word.replaceAll("[^a-zA-Z0-9]", "");
+            if (!token.isEmpty()) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+package ir.ac.kntu.utilities;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/*
+ * StripedLocks
+ *
+ * A fixed pool of reentrant locks shared by any number of keys. A key always maps
+ * to the same stripe, so compound operations on one customer or restaurant are
+ * serialized while unrelated keys rarely contend. Two keys are locked in stripe
+ * order, which keeps callers that need both from deadlocking each other.
+ */
+public class StripedLocks {
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] locks;
+
+    public StripedLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public StripedLocks(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        // Rounded up to a power of two so the stripe is a mask of the spread hash
+        int size = Integer.highestOneBit(stripes - 1) << 1;
+        locks = new ReentrantLock[Math.max(1, size)];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public int stripeCount() {
+        return locks.length;
+    }
+
+    public ReentrantLock lockFor(Object key) {
+        return locks[stripeOf(key)];
+    }
+
+    public <T> T withLock(Object key, Supplier<T> action) {
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void runWithLock(Object key, Runnable action) {
+        withLock(key, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the action holding the stripes of both keys, taken lowest stripe first.
+     */
+    public <T> T withLocks(Object first, Object second, Supplier<T> action) {
+        int firstStripe = stripeOf(first);
+        int secondStripe = stripeOf(second);
+        ReentrantLock outer = locks[Math.min(firstStripe, secondStripe)];
+        ReentrantLock inner = locks[Math.max(firstStripe, secondStripe)];
+        outer.lock();
+        try {
+            inner.lock();
+            try {
+                return action.get();
+            } finally {
+                inner.unlock();
+            }
+        } finally {
+            outer.unlock();
+        }
+    }
+
+    private int stripeOf(Object key) {
+        int hash = key == null ? 0 : key.hashCode();
+        hash ^= hash >>> 16;
+        return hash & (locks.length - 1);
+    }
+}
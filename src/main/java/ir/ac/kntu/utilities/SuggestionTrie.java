@@ -0,0 +1,195 @@
+package ir.ac.kntu.utilities;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/*
+ * SuggestionTrie
+ *
+ * Compressed (radix) prefix trie over normalized names for autocomplete.
+ * Every node keeps its best completions, ranked by weight (e.g. restaurant rating),
+ * then by length, then alphabetically. The lists are rebuilt only along the path of
+ * a name that is added, removed or re-weighted, so a lookup just walks the prefix
+ * and returns the stored list.
+ */
+public class SuggestionTrie {
+    public static final int DEFAULT_MAX_SUGGESTIONS = 5;
+
+    private final Node root;
+    private final Map<String, Double> weights;
+    private final Comparator<String> ranking;
+    private final int maxSuggestions;
+
+    public SuggestionTrie() {
+        this(DEFAULT_MAX_SUGGESTIONS);
+    }
+
+    public SuggestionTrie(int maxSuggestions) {
+        if (maxSuggestions <= 0) {
+            throw new IllegalArgumentException("Max suggestions must be positive");
+        }
+        this.root = new Node("");
+        this.weights = new HashMap<>();
+        this.maxSuggestions = maxSuggestions;
+        this.ranking = Comparator.comparingDouble((String name) -> weights.get(name)).reversed()
+                .thenComparingInt(String::length)
+                .thenComparing(Comparator.naturalOrder());
+    }
+
+    public int size() {
+        return weights.size();
+    }
+
+    public boolean contains(String name) {
+        return weights.containsKey(name);
+    }
+
+    /**
+     * Adds the name, or updates its weight when it is already present.
+     */
+    public void add(String name, double weight) {
+        String key = TextSimilarity.normalizeString(name);
+        weights.put(name, weight);
+
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        path.push(node);
+        String rest = key;
+        while (!rest.isEmpty()) {
+            Node child = node.children.get(rest.charAt(0));
+            if (child == null) {
+                child = new Node(rest);
+                node.children.put(rest.charAt(0), child);
+            }
+
+            int common = commonPrefixLength(child.label, rest, 0);
+            if (common < child.label.length()) {
+                child = split(node, child, common);
+            }
+            node = child;
+            path.push(node);
+            rest = rest.substring(common);
+        }
+
+        node.names.add(name);
+        path.forEach(this::updateTop);
+    }
+
+    public void remove(String name) {
+        if (weights.remove(name) == null) {
+            return;
+        }
+
+        List<Node> path = pathTo(TextSimilarity.normalizeString(name));
+        path.get(path.size() - 1).names.remove(name);
+
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            Node parent = path.get(i - 1);
+            if (node.names.isEmpty() && node.children.size() <= 1) {
+                // Drop empty leaves and fold single-child nodes into their child
+                parent.children.remove(node.label.charAt(0));
+                if (!node.children.isEmpty()) {
+                    Node child = node.children.values().iterator().next();
+                    child.label = node.label + child.label;
+                    parent.children.put(child.label.charAt(0), child);
+                }
+            } else {
+                updateTop(node);
+            }
+        }
+        updateTop(root);
+    }
+
+    /**
+     * Returns the best completions of the prefix. The list is shared and must not be modified.
+     */
+    public List<String> suggest(String prefix) {
+        String rest = prefix == null ? "" : TextSimilarity.normalizeString(prefix);
+        Node node = root;
+        int offset = 0;
+        while (offset < rest.length()) {
+            Node child = node.children.get(rest.charAt(offset));
+            if (child == null) {
+                return Collections.emptyList();
+            }
+            int common = commonPrefixLength(child.label, rest, offset);
+            if (offset + common == rest.length()) {
+                return child.top;
+            }
+            if (common < child.label.length()) {
+                return Collections.emptyList();
+            }
+            node = child;
+            offset += common;
+        }
+        return node.top;
+    }
+
+    private List<Node> pathTo(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        String rest = key;
+        while (!rest.isEmpty()) {
+            node = node.children.get(rest.charAt(0));
+            path.add(node);
+            rest = rest.substring(node.label.length());
+        }
+        return path;
+    }
+
+    private Node split(Node parent, Node child, int length) {
+        Node middle = new Node(child.label.substring(0, length));
+        child.label = child.label.substring(length);
+        middle.children.put(child.label.charAt(0), child);
+        parent.children.put(middle.label.charAt(0), middle);
+        return middle;
+    }
+
+    private void updateTop(Node node) {
+        Set<String> candidates = new LinkedHashSet<>(node.names);
+        for (Node child : node.children.values()) {
+            candidates.addAll(child.top);
+        }
+
+        List<String> ranked = new ArrayList<>(candidates);
+        ranked.sort(ranking);
+        if (ranked.size() > maxSuggestions) {
+            ranked = ranked.subList(0, maxSuggestions);
+        }
+        node.top = Collections.unmodifiableList(new ArrayList<>(ranked));
+    }
+
+    private static int commonPrefixLength(String label, String text, int offset) {
+        int limit = Math.min(label.length(), text.length() - offset);
+        int length = 0;
+        while (length < limit && label.charAt(length) == text.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static class Node {
+        private String label;
+        private final Map<Character, Node> children;
+        private final Set<String> names;
+        private List<String> top;
+
+        private Node(String label) {
+            this.label = label;
+            this.children = new TreeMap<>();
+            this.names = new LinkedHashSet<>();
+            this.top = Collections.emptyList();
+        }
+    }
+}
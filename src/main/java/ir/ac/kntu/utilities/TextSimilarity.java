@@ -6,44 +6,11 @@ import java.util.stream.Collectors;
 public class TextSimilarity {
 
     public static int levenshteinDistance(String str1, String str2) {
-        if (str1 == null || str2 == null) {
-            return Math.max(str1 == null ? 0 : str1.length(),
-                    str2 == null ? 0 : str2.length());
-        }
-
-        int len1 = str1.length();
-        int len2 = str2.length();
-
-        if (len1 == 0) {
-            return len2;
-        }
-        if (len2 == 0) {
-            return len1;
-        }
-
-        int[][] matrix = new int[len1 + 1][len2 + 1];
-
-        // Initialize first row and column
-        for (int i = 0; i <= len1; i++) {
-            matrix[i][0] = i;
-        }
-        for (int j = 0; j <= len2; j++) {
-            matrix[0][j] = j;
-        }
-
-        // Fill the matrix
-        for (int i = 1; i <= len1; i++) {
-            for (int j = 1; j <= len2; j++) {
-                int cost = (str1.charAt(i - 1) == str2.charAt(j - 1)) ? 0 : 1;
-
-                matrix[i][j] = Math.min(
-                        Math.min(matrix[i - 1][j] + 1,
-                                matrix[i][j - 1] + 1),
-                        matrix[i - 1][j - 1] + cost);
-            }
-        }
+        return EditDistance.distance(str1, str2, Integer.MAX_VALUE);
+    }
 
-        return matrix[len1][len2];
+    public static int levenshteinDistance(String str1, String str2, int maxDistance) {
+        return EditDistance.distance(str1, str2, maxDistance);
     }
 
     public static double levenshteinSimilarity(String str1, String str2) {
@@ -65,9 +32,14 @@ public class TextSimilarity {
             return 0.0;
         }
 
-        Set<String> set1 = tokenizeAndNormalize(str1);
-        Set<String> set2 = tokenizeAndNormalize(str2);
+        return tokenSimilarity(tokenizeAndNormalize(str1), tokenizeAndNormalize(str2));
+    }
+
+    public static double jaccardSimilarity(NormalizedText first, NormalizedText second) {
+        return tokenSimilarity(first.getTokens(), second.getTokens());
+    }
 
+    private static double tokenSimilarity(Set<String> set1, Set<String> set2) {
         if (set1.isEmpty() && set2.isEmpty()) {
             return 1.0;
         }
@@ -89,9 +61,12 @@ public class TextSimilarity {
             return 0.0;
         }
 
-        // Normalize strings
-        String normQuery = normalizeString(query);
-        String normTarget = normalizeString(target);
+        return combinedSimilarity(new NormalizedText(query), new NormalizedText(target));
+    }
+
+    public static double combinedSimilarity(NormalizedText query, NormalizedText target) {
+        String normQuery = query.getNormalized();
+        String normTarget = target.getNormalized();
 
         double levenshtein = levenshteinSimilarity(normQuery, normTarget);
         double jaccard = jaccardSimilarity(query, target);
@@ -112,18 +87,27 @@ public class TextSimilarity {
     }
 
     public static List<SearchResult> findBestMatches(String query, List<String> candidates, int maxResults) {
-        List<SearchResult> results = new ArrayList<>();
+        return findBestMatches(query, NormalizedText.normalizeAll(candidates), maxResults);
+    }
 
-        for (String candidate : candidates) {
-            double score = combinedSimilarity(query, candidate);
-            if (score > 0.1) { // Minimum threshold
-                results.add(new SearchResult(candidate, score));
-            }
+    /**
+     * Same ranking as the List overload, for callers that keep their candidates normalized.
+     */
+    public static List<SearchResult> findBestMatches(String query, NormalizedText[] candidates, int maxResults) {
+        if (query == null) {
+            return new ArrayList<>();
         }
+        return findBestMatches(new NormalizedText(query), candidates, maxResults);
+    }
 
-        results.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+    public static List<SearchResult> findBestMatches(NormalizedText query, NormalizedText[] candidates, int maxResults) {
+        return TopKMatcher.select(candidates.length,
+                index -> candidates[index] == null ? 0.0 : combinedSimilarity(query, candidates[index]),
+                index -> candidates[index].getText(), maxResults);
+    }
 
-        return results.subList(0, Math.min(maxResults, results.size()));
+    public static List<SearchResult> findBestMatches(String query, FuzzyIndex index, int maxResults) {
+        return index.findBestMatches(query, maxResults);
     }
 
     public static List<String> getAutocompleteSuggestions(String partial, List<String> candidates, int maxSuggestions) {
@@ -140,17 +124,30 @@ public class TextSimilarity {
                 .collect(Collectors.toList());
     }
 
-    private static Set<String> tokenizeAndNormalize(String text) {
+    public static Set<String> tokenizeAndNormalize(String text) {
         return Arrays.stream(text.toLowerCase().split("\\s+"))
                 .map(word -> word.replaceAll("[^a-zA-Z0-9]", ""))
                 .filter(word -> !word.isEmpty())
                 .collect(Collectors.toSet());
     }
 
-    private static String normalizeString(String text) {
-        return text.toLowerCase()
-                .replaceAll("[^a-zA-Z0-9\\s]", "")
-                .trim();
+    /**
+     * Lowercases the text and keeps only ASCII letters, digits and whitespace. A single pass
+     * instead of a regex, since autocomplete normalizes the prefix on every keystroke.
+     */
+    public static String normalizeString(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char letter = Character.toLowerCase(text.charAt(i));
+            if (letter >= 'a' && letter <= 'z' || letter >= '0' && letter <= '9' || isSpace(letter)) {
+                normalized.append(letter);
+            }
+        }
+        return normalized.toString().trim();
+    }
+
+    private static boolean isSpace(char letter) {
+        return letter == ' ' || letter == '\t' || letter == '\n' || letter == '\u000B' || letter == '\f' || letter == '\r';
     }
     
     public static class SearchResult {
@@ -0,0 +1,119 @@
+package ir.ac.kntu.utilities;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+
+/*
+ * TopKMatcher
+ *
+ * Picks the best K scored candidates without sorting the whole candidate set.
+ * Each scan keeps a bounded min-heap of size K; large sets are split across the
+ * common ForkJoin pool and the partial heaps are merged at the end.
+ *
+ * The order matches a stable sort by descending score: equal scores keep the
+ * candidates' original order.
+ */
+public final class TopKMatcher {
+    public static final int PARALLEL_THRESHOLD = 4096;
+    public static final double MIN_SCORE = 0.1;
+
+    private static final int CHUNK_SIZE = 1024;
+
+    // Lowest score first; on equal scores the later candidate is the worse one
+    private static final Comparator<Ranked> WORST_FIRST = Comparator
+            .comparingDouble((Ranked ranked) -> ranked.score)
+            .thenComparing(Comparator.comparingInt((Ranked ranked) -> ranked.index).reversed());
+
+    private TopKMatcher() {
+        // Static helpers only
+    }
+
+    /**
+     * Scores candidates 0..size-1 and returns the best maxResults above MIN_SCORE, best first.
+     */
+    public static List<TextSimilarity.SearchResult> select(int size, IntToDoubleFunction scorer,
+                                                           IntFunction<String> texts, int maxResults) {
+        List<TextSimilarity.SearchResult> results = new ArrayList<>();
+        if (size == 0 || maxResults <= 0) {
+            return results;
+        }
+
+        ScanTask task = new ScanTask(scorer, 0, size, maxResults);
+        PriorityQueue<Ranked> heap = size < PARALLEL_THRESHOLD ? task.scan() : ForkJoinPool.commonPool().invoke(task);
+
+        List<Ranked> ranked = new ArrayList<>(heap);
+        ranked.sort(WORST_FIRST.reversed());
+        for (Ranked entry : ranked) {
+            results.add(new TextSimilarity.SearchResult(texts.apply(entry.index), entry.score));
+        }
+        return results;
+    }
+
+    private static final class Ranked {
+        private final int index;
+        private final double score;
+
+        private Ranked(int index, double score) {
+            this.index = index;
+            this.score = score;
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<PriorityQueue<Ranked>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient IntToDoubleFunction scorer;
+        private final int from;
+        private final int to;
+        private final int limit;
+
+        private ScanTask(IntToDoubleFunction scorer, int from, int to, int limit) {
+            this.scorer = scorer;
+            this.from = from;
+            this.to = to;
+            this.limit = limit;
+        }
+
+        @Override
+        protected PriorityQueue<Ranked> compute() {
+            if (to - from <= CHUNK_SIZE) {
+                return scan();
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(scorer, from, middle, limit);
+            ScanTask right = new ScanTask(scorer, middle, to, limit);
+            left.fork();
+            PriorityQueue<Ranked> merged = right.compute();
+            for (Ranked entry : left.join()) {
+                offer(merged, entry, limit);
+            }
+            return merged;
+        }
+
+        private PriorityQueue<Ranked> scan() {
+            PriorityQueue<Ranked> heap = new PriorityQueue<>(WORST_FIRST);
+            for (int i = from; i < to; i++) {
+                double score = scorer.applyAsDouble(i);
+                if (score > MIN_SCORE) {
+                    offer(heap, new Ranked(i, score), limit);
+                }
+            }
+            return heap;
+        }
+    }
+
+    private static void offer(PriorityQueue<Ranked> heap, Ranked entry, int limit) {
+        if (heap.size() < limit) {
+            heap.add(entry);
+        } else if (WORST_FIRST.compare(entry, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(entry);
+        }
+    }
+}
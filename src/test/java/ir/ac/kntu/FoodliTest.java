@@ -1,14 +1,32 @@
 package ir.ac.kntu;
 
+import ir.ac.kntu.events.EventBus;
+import ir.ac.kntu.events.SlowConsumerPolicy;
+import ir.ac.kntu.events.Subscription;
 import ir.ac.kntu.managers.*;
 import ir.ac.kntu.models.*;
 import ir.ac.kntu.models.enums.*;
+import ir.ac.kntu.utilities.Money;
 import ir.ac.kntu.utilities.TextSimilarity;
 import ir.ac.kntu.utilities.RandomDataGenerator;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -58,6 +76,8 @@ public class FoodliTest {
         assertEquals(5, restaurant.getZoneNumber());
         assertEquals(foodTypes, restaurant.getFoodTypes());
         assertEquals(RestaurantStatus.PENDING_REVIEW, restaurant.getStatus());
+        assertSame(restaurant, restaurantManager.findRestaurantById(restaurant.getId()));
+        assertNull(restaurantManager.findRestaurantById(-1));
     }
 
     @Test
@@ -121,6 +141,83 @@ public class FoodliTest {
         assertEquals(65000, order.getFinalAmount()); // 60000 + 5000 delivery
     }
 
+    @Test
+    @DisplayName("Order Indexes Follow Status Changes")
+    void testOrderIndexes() {
+        Customer customer = (Customer) UserManager.getInstance().signUpCustomer("Index", "Customer", "09124444444", "test123");
+        customer.setWallet(500000);
+        Manager manager = (Manager) UserManager.getInstance().signUpManager("Test11", "Manager", "09120000010", "test123");
+        Restaurant restaurant = restaurantManager.createRestaurant("Index Kitchen", manager, "Address", 7, Arrays.asList(FoodType.IRANIAN));
+        restaurantManager.approveRestaurant(restaurant);
+        Food food = new Food("Index Stew", 20000, FoodCategory.MAIN_DISH);
+        restaurantManager.addFoodToRestaurant(restaurant, food);
+
+        Address address = new Address("Index Address", 7);
+        ir.ac.kntu.models.Order first = orderManager.createOrder(customer, restaurant, Arrays.asList(new OrderItem(food, 1)), 5000, address);
+        ir.ac.kntu.models.Order second = orderManager.createOrder(customer, restaurant, Arrays.asList(new OrderItem(food, 2)), 5000, address);
+        ir.ac.kntu.models.Order third = orderManager.createOrder(customer, restaurant, Arrays.asList(new OrderItem(food, 3)), 5000, address);
+
+        assertEquals(List.of(first, second, third), orderManager.getNewOrdersByRestaurant(restaurant));
+
+        orderManager.updateOrderStatus(second, OrderStatus.PREPARING);
+        orderManager.updateOrderStatus(third, OrderStatus.CANCELLED);
+        assertEquals(List.of(first), orderManager.getNewOrdersByRestaurant(restaurant));
+        assertEquals(List.of(first, second), orderManager.getActiveOrdersByRestaurant(restaurant));
+
+        // Restoring a cancelled order puts it back into the active sets in ID order
+        third.setStatus(OrderStatus.REGISTERED);
+        orderManager.restoreOrder(third);
+        assertEquals(List.of(first, third), orderManager.getNewOrdersByRestaurant(restaurant));
+        assertEquals(List.of(first, second, third), orderManager.getActiveOrdersByRestaurant(restaurant));
+        assertEquals(List.of(first, second, third), orderManager.getOrdersByCustomer(customer));
+        assertEquals(3, orderManager.getOrdersByRestaurant(restaurant).size());
+
+        assertSame(second, orderManager.findOrderById(second.getId()));
+        assertEquals(List.of(third, first), orderManager.findOrdersByIds(List.of(third.getId(), -1, first.getId())));
+    }
+
+    @Test
+    @DisplayName("Order IDs Stay Unique After Restores")
+    void testOrderIdAllocation() {
+        Customer customer = (Customer) UserManager.getInstance().signUpCustomer("Id", "Customer", "09125555555", "test123");
+        Manager manager = (Manager) UserManager.getInstance().signUpManager("Test12", "Manager", "09120000011", "test123");
+        Restaurant restaurant = restaurantManager.createRestaurant("Id Kitchen", manager, "Address", 8, Arrays.asList(FoodType.IRANIAN));
+        Address address = new Address("Id Address", 8);
+
+        ir.ac.kntu.models.Order restored = new ir.ac.kntu.models.Order(customer, restaurant, new java.util.ArrayList<>(), 0, address);
+        restored.setId(orderManager.getAllOrders().size() + 100);
+        orderManager.restoreOrder(restored);
+
+        ir.ac.kntu.models.Order created = orderManager.createOrder(customer, restaurant, new java.util.ArrayList<>(), 0, address);
+        assertEquals(restored.getId() + 1, created.getId());
+        assertSame(restored, orderManager.findOrderById(restored.getId()));
+
+        // A different order carrying an ID in use is refused and leaves the original in place
+        ir.ac.kntu.models.Order clash = new ir.ac.kntu.models.Order(customer, restaurant, new java.util.ArrayList<>(), 0, address);
+        clash.setId(restored.getId());
+        assertThrows(IllegalArgumentException.class, () -> orderManager.restoreOrder(clash));
+        assertSame(restored, orderManager.findOrderById(restored.getId()));
+        assertEquals(List.of(restored, created), orderManager.getOrdersByCustomer(customer));
+    }
+
+    @Test
+    @DisplayName("User Directory Lookups")
+    void testUserDirectory() {
+        UserManager userManager = UserManager.getInstance();
+        User customer = userManager.signUpCustomer("Directory", "Customer", "09126666666", "test123");
+
+        assertNull(userManager.signUpManager("Duplicate", "Manager", "09126666666", "test123"));
+        assertSame(customer, userManager.findUserByPhoneNumber("09126666666"));
+        assertSame(customer, userManager.findUserById(customer.getId()));
+        assertTrue(userManager.getUsersByRole(UserRole.CUSTOMER).contains(customer));
+        assertFalse(userManager.getUsersByRole(UserRole.RESTAURANT_MANAGER).contains(customer));
+        assertThrows(UnsupportedOperationException.class, () -> userManager.getUsers().clear());
+
+        userManager.removeUsers(user -> user == customer);
+        assertNull(userManager.findUserByPhoneNumber("09126666666"));
+        assertFalse(userManager.getUsers().contains(customer));
+    }
+
     @Test
     @DisplayName("Text Similarity Algorithms")
     void testTextSimilarity() {
@@ -170,6 +267,595 @@ public class FoodliTest {
         // Test search by food name
         results = restaurantManager.searchRestaurants("Burger");
         assertTrue(results.contains(rest2));
+
+        // A misspelled query is corrected once, and the outcome says what it was corrected to
+        RestaurantManager.SearchOutcome outcome = restaurantManager.search("Margherrita");
+        assertTrue(outcome.isCorrected());
+        assertEquals("margherita", outcome.getCorrectedQuery());
+        assertTrue(outcome.getRestaurants().contains(rest1));
+        assertFalse(restaurantManager.search("Pizza").isCorrected());
+    }
+
+    @Test
+    @DisplayName("Search Index Follows Menu Changes")
+    void testSearchIndexUpdates() {
+        Manager manager = (Manager) UserManager.getInstance().signUpManager("Test8", "Manager", "09120000007", "test123");
+        Restaurant restaurant = restaurantManager.createRestaurant("Shandiz Hall", manager, "Address", 4, Arrays.asList(FoodType.IRANIAN));
+
+        Food food = new Food("Zereshk Polo", 40000, FoodCategory.MAIN_DISH);
+        restaurantManager.addFoodToRestaurant(restaurant, food);
+
+        // Pending restaurants are not searchable until approved
+        assertFalse(restaurantManager.searchRestaurants("Zereshk").contains(restaurant));
+
+        restaurantManager.approveRestaurant(restaurant);
+        assertTrue(restaurantManager.searchRestaurants("Zereshk").contains(restaurant));
+        assertTrue(restaurantManager.searchRestaurants("Shandiz").contains(restaurant));
+
+        // Repeated queries are served from the cache until the catalog changes
+        long hits = restaurantManager.getSearchCacheStats().getHits();
+        assertTrue(restaurantManager.searchRestaurants("  SHANDIZ ").contains(restaurant));
+        assertEquals(hits + 1, restaurantManager.getSearchCacheStats().getHits());
+
+        restaurantManager.setFoodAvailability(restaurant, food, false);
+        assertFalse(restaurantManager.searchRestaurants("Zereshk").contains(restaurant));
+
+        restaurantManager.setFoodAvailability(restaurant, food, true);
+        restaurantManager.renameFood(restaurant, food, "Baghali Polo");
+        assertEquals("baghali polo", food.getSearchName().getNormalized());
+        assertTrue(restaurantManager.searchRestaurants("Baghali").contains(restaurant));
+
+        restaurantManager.removeFoodFromRestaurant(restaurant, food);
+        assertFalse(restaurantManager.searchRestaurants("Baghali").contains(restaurant));
+    }
+
+    @Test
+    @DisplayName("Facet Filters Follow Restaurant Changes")
+    void testFacetFilters() {
+        Manager manager = (Manager) UserManager.getInstance().signUpManager("Test10", "Manager", "09120000009", "test123");
+        Restaurant seafood = restaurantManager.createRestaurant("Bandar Fish", manager, "Address", 21, Arrays.asList(FoodType.SEAFOOD));
+        Restaurant cafe = restaurantManager.createRestaurant("Bandar Cafe", manager, "Address", 22,
+                Arrays.asList(FoodType.CAFE, FoodType.SEAFOOD));
+
+        RestaurantFilter seafoodFilter = new RestaurantFilter().withFoodType(FoodType.SEAFOOD).inZone(21).inZone(22);
+        assertTrue(restaurantManager.filterRestaurants(seafoodFilter).isEmpty());
+
+        restaurantManager.approveRestaurant(seafood);
+        restaurantManager.approveRestaurant(cafe);
+        assertEquals(List.of(seafood, cafe), restaurantManager.filterRestaurants(seafoodFilter));
+
+        restaurantManager.changeZone(cafe, 3);
+        restaurantManager.setRating(seafood, 4.2, 5);
+        assertEquals(List.of(seafood), restaurantManager.filterRestaurants(seafoodFilter));
+        assertEquals(List.of(seafood), restaurantManager.filterRestaurants(
+                new RestaurantFilter().withFoodType(FoodType.SEAFOOD).withMinRating(4)));
+
+        // Facets narrow text-search results
+        assertEquals(List.of(cafe), restaurantManager.searchRestaurants("Bandar",
+                new RestaurantFilter().withFoodType(FoodType.CAFE)));
+    }
+
+    @Test
+    @DisplayName("Manager And Status Indexes Follow Reviews")
+    void testRestaurantIndexes() {
+        Manager manager = (Manager) UserManager.getInstance().signUpManager("Test13", "Manager", "09120000012", "test123");
+        Restaurant first = restaurantManager.createRestaurant("Yazd Kitchen", manager, "Address", 4, Arrays.asList(FoodType.IRANIAN));
+        Restaurant second = restaurantManager.createRestaurant("Yazd Cafe", manager, "Address", 4, Arrays.asList(FoodType.CAFE));
+        assertEquals(List.of(first, second), restaurantManager.getRestaurantsByManager(manager));
+        assertEquals(first, restaurantManager.findRestaurantByManager(manager));
+        assertTrue(restaurantManager.getPendingRestaurants().containsAll(List.of(first, second)));
+
+        restaurantManager.approveRestaurant(second);
+        assertEquals(second, restaurantManager.findRestaurantByManager(manager));
+        assertTrue(restaurantManager.getApprovedRestaurants().contains(second));
+        assertFalse(restaurantManager.getPendingRestaurants().contains(second));
+
+        restaurantManager.rejectRestaurant(first, "Incomplete documents");
+        assertFalse(restaurantManager.getPendingRestaurants().contains(first));
+        assertFalse(restaurantManager.getApprovedRestaurants().contains(first));
+        assertEquals(second, restaurantManager.findRestaurantByManager(manager));
+    }
+
+    @Test
+    @DisplayName("Concurrent Checkouts Lose No Orders Or Money")
+    void testConcurrentCheckouts() throws Exception {
+        Manager manager = (Manager) UserManager.getInstance().signUpManager("Test14", "Manager", "09120000013", "test123");
+        Restaurant restaurant = restaurantManager.createRestaurant("Stress Kitchen", manager, "Address", 5,
+                Arrays.asList(FoodType.FAST_FOOD), 5000, 0);
+        restaurantManager.approveRestaurant(restaurant);
+        Food burger = new Food("Stress Burger", 20000, FoodCategory.MAIN_DISH);
+        restaurantManager.addFoodToRestaurant(restaurant, burger);
+
+        // Four customers shared by eight threads; each wallet covers only part of the attempts
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Customer customer = new Customer("Stress", "Customer" + i, "0913000000" + i, "test123");
+            customer.setWallet(500000);
+            customers.add(customer);
+        }
+
+        AtomicInteger placed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            Customer customer = customers.get(thread % customers.size());
+            futures.add(pool.submit(() -> {
+                start.await();
+                placeStressOrders(customer, restaurant, burger, placed);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        List<ir.ac.kntu.models.Order> orders = orderManager.getOrdersByRestaurant(restaurant);
+        assertEquals(placed.get(), orders.size());
+        Set<Integer> ids = new HashSet<>();
+        orders.forEach(order -> ids.add(order.getId()));
+        assertEquals(orders.size(), ids.size());
+
+        double delivered = 0;
+        for (Customer customer : customers) {
+            double spent = 0;
+            for (ir.ac.kntu.models.Order order : orderManager.getOrdersByCustomer(customer)) {
+                if (order.getStatus() != OrderStatus.CANCELLED) {
+                    spent += order.getFinalAmount();
+                }
+                if (order.getStatus() == OrderStatus.DELIVERED) {
+                    delivered += order.getFinalAmount();
+                }
+            }
+            assertTrue(customer.getWallet() >= 0);
+            assertEquals(500000 - spent, customer.getWallet(), 0.001);
+        }
+        assertEquals(delivered, Money.toToman(SettlementEngine.getInstance().exactBalance(restaurant)), 0.001);
+    }
+
+    private void placeStressOrders(Customer customer, Restaurant restaurant, Food food, AtomicInteger placed) {
+        for (int attempt = 0; attempt < 25; attempt++) {
+            ShoppingCart cart = new ShoppingCart();
+            cart.setRestaurant(restaurant);
+            cart.addItem(food, 1);
+            try {
+                ir.ac.kntu.models.Order order = cartManager.checkout(customer, cart, new Address("Home", 5));
+                placed.incrementAndGet();
+                // Every other order is refunded, the rest are delivered
+                if (attempt % 2 == 0) {
+                    orderManager.updateOrderStatus(order, OrderStatus.CANCELLED);
+                } else {
+                    orderManager.updateOrderStatus(order, OrderStatus.PREPARING);
+                    orderManager.updateOrderStatus(order, OrderStatus.SENT);
+                    orderManager.updateOrderStatus(order, OrderStatus.DELIVERED);
+                }
+            } catch (IllegalStateException e) {
+                // Insufficient balance right now; another thread may refund before the next attempt
+                continue;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Order Status Follows The Transition Table And Refunds Once")
+    void testOrderStateMachine() throws Exception {
+        Manager manager = (Manager) UserManager.getInstance().signUpManager("Test17", "Manager", "09120000016", "test123");
+        Restaurant restaurant = restaurantManager.createRestaurant("State Kitchen", manager, "Address", 4, Arrays.asList(FoodType.IRANIAN));
+        restaurantManager.approveRestaurant(restaurant);
+        Food food = new Food("State Stew", 30000, FoodCategory.MAIN_DISH);
+        restaurantManager.addFoodToRestaurant(restaurant, food);
+        Customer customer = new Customer("State", "Customer", "09170000003", "test123");
+        Address address = new Address("Home", 4);
+
+        ir.ac.kntu.models.Order order = orderManager.createOrder(customer, restaurant, Arrays.asList(new OrderItem(food, 1)), 0, address);
+        assertFalse(orderManager.updateOrderStatus(order, OrderStatus.DELIVERED));
+        assertFalse(orderManager.updateOrderStatus(order, OrderStatus.SENT));
+        assertTrue(orderManager.updateOrderStatus(order, OrderStatus.PREPARING));
+        assertFalse(orderManager.updateOrderStatus(order, OrderStatus.REGISTERED));
+        assertFalse(orderManager.updateOrderStatus(order, OrderStatus.CANCELLED));
+        assertTrue(orderManager.updateOrderStatus(order, OrderStatus.SENT));
+        assertTrue(orderManager.updateOrderStatus(order, OrderStatus.DELIVERED));
+        assertFalse(orderManager.updateOrderStatus(order, OrderStatus.DELIVERED));
+        assertFalse(orderManager.updateOrderStatus(order, OrderStatus.REGISTERED));
+        assertEquals(Money.toMinor(30000), SettlementEngine.getInstance().exactBalance(restaurant));
+
+        // Eight handlers cancel the same order at once; one wins and the customer is refunded once
+        ir.ac.kntu.models.Order cancelled = orderManager.createOrder(customer, restaurant, Arrays.asList(new OrderItem(food, 1)), 0, address);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> handlers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            handlers.add(pool.submit(() -> {
+                start.await();
+                return orderManager.updateOrderStatus(cancelled, OrderStatus.CANCELLED);
+            }));
+        }
+        start.countDown();
+        int winners = 0;
+        for (Future<Boolean> handler : handlers) {
+            winners += handler.get(30, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        pool.shutdown();
+        assertEquals(1, winners);
+        assertEquals(30000, customer.getWallet(), 0.001);
+        assertEquals(OrderStatus.CANCELLED, cancelled.getStatus());
+        assertFalse(orderManager.getNewOrdersByRestaurant(restaurant).contains(cancelled));
+    }
+
+    @Test
+    @DisplayName("New Orders Are Pushed To A Bounded Intake")
+    void testOrderIntake() throws Exception {
+        Manager manager = (Manager) UserManager.getInstance().signUpManager("Test18", "Manager", "09120000017", "test123");
+        Restaurant restaurant = restaurantManager.createRestaurant("Intake Kitchen", manager, "Address", 2, Arrays.asList(FoodType.CAFE));
+        restaurantManager.approveRestaurant(restaurant);
+        Food tea = new Food("Intake Tea", 10000, FoodCategory.BEVERAGE);
+        restaurantManager.addFoodToRestaurant(restaurant, tea);
+        Customer customer = new Customer("Intake", "Customer", "09170000004", "test123");
+        customer.setWallet(100000);
+        Address address = new Address("Home", 2);
+        ShoppingCart cart = new ShoppingCart();
+        cart.setRestaurant(restaurant);
+        cart.addItem(tea, 1);
+
+        assertNull(orderManager.pollNewOrder(restaurant, 10, TimeUnit.MILLISECONDS));
+
+        // A kitchen blocked on its intake is woken by the next order
+        ExecutorService kitchen = Executors.newSingleThreadExecutor();
+        Future<ir.ac.kntu.models.Order> waiting = kitchen.submit(() -> orderManager.takeNewOrder(restaurant));
+        ir.ac.kntu.models.Order first = cartManager.checkout(customer, cart, address);
+        assertSame(first, waiting.get(30, TimeUnit.SECONDS));
+        kitchen.shutdown();
+
+        int capacity = orderManager.getIntakeCapacity();
+        orderManager.setIntakeCapacity(2);
+        try {
+            ir.ac.kntu.models.Order second = cartManager.checkout(customer, cart, address);
+            double balance = customer.getWallet();
+            // The intake is full, so the order is refused and the customer is not charged
+            assertThrows(IllegalStateException.class, () -> cartManager.checkout(customer, cart, address));
+            assertEquals(balance, customer.getWallet(), 0.001);
+            assertEquals(2, orderManager.getWaitingOrderCount(restaurant));
+
+            assertTrue(orderManager.updateOrderStatus(first, OrderStatus.PREPARING));
+            ir.ac.kntu.models.Order third = cartManager.checkout(customer, cart, address);
+            assertEquals(2, orderManager.getQueuedOrderCount(restaurant));
+
+            // Handled orders are skipped, undecided ones can be put back
+            assertSame(second, orderManager.pollNewOrder(restaurant, 1, TimeUnit.SECONDS));
+            orderManager.putBackNewOrder(second);
+            // Orders handled elsewhere leave the queue at once, without a kitchen polling
+            assertTrue(orderManager.updateOrderStatus(third, OrderStatus.CANCELLED));
+            assertEquals(1, orderManager.getQueuedOrderCount(restaurant));
+            assertSame(second, orderManager.pollNewOrder(restaurant, 1, TimeUnit.SECONDS));
+            assertNull(orderManager.pollNewOrder(restaurant, 10, TimeUnit.MILLISECONDS));
+            assertEquals(1, orderManager.getWaitingOrderCount(restaurant));
+        } finally {
+            orderManager.setIntakeCapacity(capacity);
+        }
+    }
+
+    @Test
+    @DisplayName("Checkout Retries With One Key Are Charged Once")
+    void testIdempotentCheckout() throws Exception {
+        Manager manager = (Manager) UserManager.getInstance().signUpManager("Test16", "Manager", "09120000015", "test123");
+        Restaurant restaurant = restaurantManager.createRestaurant("Retry Kitchen", manager, "Address", 3,
+                Arrays.asList(FoodType.FAST_FOOD), 10000, 0);
+        restaurantManager.approveRestaurant(restaurant);
+        Food pizza = new Food("Retry Pizza", 40000, FoodCategory.MAIN_DISH);
+        restaurantManager.addFoodToRestaurant(restaurant, pizza);
+
+        Customer customer = new Customer("Retry", "Customer", "09170000001", "test123");
+        customer.setWallet(120000);
+        Address home = new Address("Home", 3);
+        ShoppingCart cart = new ShoppingCart();
+        cart.setRestaurant(restaurant);
+        cart.addItem(pizza, 1);
+
+        // Eight concurrent retries of the same checkout place one order
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ir.ac.kntu.models.Order>> retries = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            retries.add(pool.submit(() -> {
+                start.await();
+                return cartManager.checkout(customer, cart, home, "retry-1");
+            }));
+        }
+        start.countDown();
+        ir.ac.kntu.models.Order first = retries.get(0).get(30, TimeUnit.SECONDS);
+        for (Future<ir.ac.kntu.models.Order> retry : retries) {
+            assertSame(first, retry.get(30, TimeUnit.SECONDS));
+        }
+        assertEquals(70000, customer.getWallet(), 0.001);
+        assertSame(first, cartManager.findCheckout(customer, "retry-1"));
+
+        // Distinct keys are distinct checkouts, and the wallet covers only one more
+        AtomicInteger placed = new AtomicInteger();
+        List<Future<?>> attempts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String key = "retry-" + (i + 2);
+            attempts.add(pool.submit(() -> {
+                try {
+                    cartManager.checkout(customer, cart, home, key);
+                    placed.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    assertEquals("Insufficient wallet balance", e.getMessage());
+                }
+            }));
+        }
+        for (Future<?> attempt : attempts) {
+            attempt.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertEquals(1, placed.get());
+        assertEquals(20000, customer.getWallet(), 0.001);
+        assertEquals(2, orderManager.getOrdersByCustomer(customer).size());
+        assertFalse(customer.getWalletAccount().tryDebit(Money.toMinor(20001), LedgerReason.CHECKOUT));
+
+        // A failed checkout is not remembered, so retrying its key after a top-up places the order
+        assertThrows(IllegalStateException.class, () -> cartManager.checkout(customer, cart, home, "retry-10"));
+        assertNull(cartManager.findCheckout(customer, "retry-10"));
+        orderManager.topUpWallet(customer, 30000);
+        ir.ac.kntu.models.Order afterTopUp = cartManager.checkout(customer, cart, home, "retry-10");
+        assertSame(afterTopUp, cartManager.checkout(customer, cart, home, "retry-10"));
+        assertEquals(0, customer.getWallet(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Wallet Movements Are Exact And Rebuildable From The Ledger")
+    void testWalletLedger() throws Exception {
+        WalletLedger ledger = new WalletLedger(null, 100_000);
+        Wallet shared = new Wallet(ledger);
+        Wallet other = new Wallet(ledger);
+        shared.credit(Money.toMinor(0.1), LedgerReason.TOP_UP);
+        shared.credit(Money.toMinor(0.2), LedgerReason.TOP_UP);
+        assertEquals(Money.toMinor(0.3), shared.getBalance());
+
+        // Eight threads hammer one wallet and a second one; nothing is lost or overdrawn
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            workers.add(pool.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    shared.credit(700, LedgerReason.REFUND);
+                    other.credit(300, LedgerReason.DELIVERY_CREDIT);
+                    shared.tryDebit(1000, LedgerReason.CHECKOUT);
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertTrue(shared.getBalance() >= 0);
+        assertEquals(8 * 2000 * 300, other.getBalance());
+        assertEquals(shared.getBalance(), ledger.rebuildBalance(shared));
+        assertEquals(other.getBalance(), ledger.rebuildBalances().get(other.getId()));
+        List<LedgerEntry> otherEntries = ledger.getEntries(other);
+        assertEquals(8 * 2000, otherEntries.size());
+        assertTrue(otherEntries.stream().anyMatch(entry -> entry.getBalanceAfter() == other.getBalance()));
+
+        shared.setBalance(5000, LedgerReason.ADJUSTMENT);
+        assertFalse(shared.tryDebit(5001, LedgerReason.CHECKOUT));
+        assertEquals(5000, ledger.rebuildBalance(shared));
+
+        // A wallet keeps only its recent entries; older ones live on in its opening balance
+        WalletLedger small = new WalletLedger(null, 10);
+        Wallet busy = new Wallet(small);
+        for (int i = 1; i <= 100; i++) {
+            busy.credit(i, LedgerReason.TOP_UP);
+        }
+        assertTrue(small.size() <= 20);
+        assertEquals(5050, small.rebuildBalance(busy));
+        List<LedgerEntry> recent = small.getEntries(busy);
+        assertEquals(100, recent.get(recent.size() - 1).getAmount());
+        assertEquals(5050 - recent.stream().mapToLong(LedgerEntry::getAmount).sum(), small.getOpeningBalance(busy));
+
+        small.checkpoint();
+        assertEquals(0, small.size());
+        assertEquals(5050, small.rebuildBalance(busy));
+        busy.tryDebit(50, LedgerReason.CHECKOUT);
+        assertEquals(busy.getBalance(), small.rebuildBalance(busy));
+    }
+
+    @Test
+    @DisplayName("Delivery Credits Settle In Batches With Exact Reads")
+    void testSettlement() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        SettlementEngine settlement = new SettlementEngine(1000, clock::get);
+        Manager manager = new Manager("Settle", "Manager", "09170000002", "test123");
+        Restaurant restaurant = new Restaurant("Settle Kitchen", manager, "Address", 1, Arrays.asList(FoodType.CAFE));
+
+        // Deliveries, a flusher and a reader all at once; the exact balance never goes backwards
+        ExecutorService pool = Executors.newFixedThreadPool(10);
+        List<Future<?>> deliveries = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            deliveries.add(pool.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    settlement.accrue(restaurant, 500);
+                }
+            }));
+        }
+        AtomicBoolean delivering = new AtomicBoolean(true);
+        Future<?> flusher = pool.submit(() -> {
+            while (delivering.get()) {
+                settlement.flush(restaurant);
+            }
+        });
+        Future<Boolean> reader = pool.submit(() -> {
+            long last = 0;
+            while (delivering.get()) {
+                long balance = settlement.exactBalance(restaurant);
+                if (balance < last) {
+                    return false;
+                }
+                last = balance;
+            }
+            return true;
+        });
+        for (Future<?> delivery : deliveries) {
+            delivery.get(30, TimeUnit.SECONDS);
+        }
+        delivering.set(false);
+        flusher.get(30, TimeUnit.SECONDS);
+        assertTrue(reader.get(30, TimeUnit.SECONDS));
+
+        long total = 8 * 1000 * 500;
+        assertEquals(total, settlement.exactBalance(restaurant));
+        assertEquals(total, restaurant.getWalletAccount().getBalance() + settlement.pendingCredits(restaurant));
+
+        // Accruals flush everything once the interval has passed
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        settlement.accrue(restaurant, 500);
+        assertEquals(0, settlement.pendingCredits(restaurant));
+        assertEquals(total + 500, restaurant.getWalletAccount().getBalance());
+        assertEquals(total + 500, WalletLedger.getInstance().rebuildBalance(restaurant.getWalletAccount()));
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("A Blocked Event Subscriber Does Not Stall Exact Balance Reads")
+    void testSettlementWithBlockedSubscriber() throws Exception {
+        SettlementEngine settlement = new SettlementEngine(1000, System::nanoTime);
+        Manager manager = new Manager("Settle", "Manager", "09170000005", "test123");
+        Restaurant restaurant = new Restaurant("Busy Settle Kitchen", manager, "Address", 1, Arrays.asList(FoodType.CAFE));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        EventBus bus = EventBus.getInstance();
+        Subscription slow = bus.subscribe("slow-settlement", SlowConsumerPolicy.BLOCK, 1, event -> {
+            started.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            // The subscriber holds one movement and its one-slot ring holds another, so the next publish waits
+            restaurant.getWalletAccount().credit(100, LedgerReason.ADJUSTMENT);
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            restaurant.getWalletAccount().credit(100, LedgerReason.ADJUSTMENT);
+
+            settlement.accrue(restaurant, 500);
+            Future<?> flusher = pool.submit(() -> settlement.flush(restaurant));
+            Thread.sleep(100);
+            assertFalse(flusher.isDone());
+            // The flush is stuck publishing, but the money is already readable
+            assertEquals(700, pool.submit(() -> settlement.exactBalance(restaurant)).get(5, TimeUnit.SECONDS));
+
+            gate.countDown();
+            flusher.get(10, TimeUnit.SECONDS);
+            assertEquals(700, restaurant.getWalletAccount().getBalance());
+        } finally {
+            gate.countDown();
+            bus.unsubscribe(slow, 1000);
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Carts Are Kept Per Customer And Spilled When Idle")
+    void testPerCustomerCarts(@TempDir Path spillDirectory) {
+        Manager manager = (Manager) UserManager.getInstance().signUpManager("Test15", "Manager", "09120000014", "test123");
+        Restaurant restaurant = restaurantManager.createRestaurant("Cart Kitchen", manager, "Address", 2, Arrays.asList(FoodType.CAFE));
+        restaurantManager.approveRestaurant(restaurant);
+        Food coffee = new Food("Cart Coffee", 30000, FoodCategory.BEVERAGE);
+        restaurantManager.addFoodToRestaurant(restaurant, coffee);
+
+        Customer first = new Customer("Cart", "One", "09140000001", "test123");
+        Customer second = new Customer("Cart", "Two", "09140000002", "test123");
+        cartManager.getCart(first).setRestaurant(restaurant);
+        cartManager.getCart(first).addItem(coffee, 2);
+        assertEquals(60000, cartManager.getCart(first).getTotal());
+        assertTrue(cartManager.getCart(second).isEmpty());
+
+        long[] now = {0};
+        long minute = 60_000_000_000L;
+        CartStore store = new CartStore(2, 60_000, spillDirectory, () -> now[0]);
+        store.cartFor("a").setRestaurant(restaurant);
+        store.cartFor("a").addItem(coffee, 3);
+        store.cartFor("b");
+
+        // Going over the cap evicts the least recently used carts; a non-empty one is spilled and later restored
+        now[0] += 1;
+        store.cartFor("c");
+        assertFalse(store.contains("a"));
+        assertEquals(1, store.size());
+        assertTrue(Files.exists(spillDirectory.resolve("cart-a.txt")));
+        assertEquals(90000, store.cartFor("a").getTotal());
+        assertFalse(Files.exists(spillDirectory.resolve("cart-a.txt")));
+
+        // Idle carts are swept; empty ones are simply dropped
+        now[0] += 2 * minute;
+        store.cartFor("a");
+        assertEquals(1, store.size());
+        assertTrue(store.cartFor("b").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Sessions Are Bound Per Thread And Expire")
+    void testSessionRegistry() throws Exception {
+        long[] now = {0};
+        long minute = 60_000_000_000L;
+        SessionManager sessions = new SessionManager(() -> now[0]);
+        sessions.setIdleTimeout(10 * 60_000);
+        Customer alice = new Customer("Alice", "Session", "09150000001", "test123");
+        Customer bob = new Customer("Bob", "Session", "09150000002", "test123");
+
+        sessions.login(alice);
+        String aliceToken = sessions.getCurrentToken();
+        String bobToken = sessions.openSession(bob).getToken();
+        assertNotEquals(aliceToken, bobToken);
+
+        // Another thread only sees the session it binds
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        assertNull(pool.submit(sessions::getCurrentUser).get());
+        assertEquals(bob, pool.submit(() -> sessions.bind(bobToken) ? sessions.getCurrentUser() : null).get());
+        assertEquals(alice, sessions.getCurrentUser());
+        assertEquals(bob, sessions.callAs(bobToken, sessions::getCurrentUser));
+        assertEquals(alice, sessions.getCurrentUser());
+
+        // Alice stays active, Bob goes idle past the timeout
+        now[0] += 8 * minute;
+        assertEquals(alice, sessions.getCurrentUser());
+        now[0] += 8 * minute;
+        assertNull(sessions.findSession(bobToken));
+        assertNull(pool.submit(sessions::getCurrentUser).get());
+        pool.shutdown();
+        String idleToken = sessions.openSession(bob).getToken();
+        assertEquals(alice, sessions.getCurrentUser());
+        now[0] += 6 * minute;
+        assertEquals(alice, sessions.getCurrentUser());
+        now[0] += 5 * minute;
+        assertEquals(1, sessions.sweep());
+        assertNull(sessions.findSession(idleToken));
+        assertEquals(1, sessions.getSessionCount());
+
+        sessions.logout();
+        assertNull(sessions.getCurrentUser());
+        assertEquals(0, sessions.getSessionCount());
+    }
+
+    @Test
+    @DisplayName("Search Suggestions Ranked By Rating")
+    void testSearchSuggestions() {
+        Manager manager = (Manager) UserManager.getInstance().signUpManager("Test9", "Manager", "09120000008", "test123");
+        Restaurant first = restaurantManager.createRestaurant("Qazvin Grill", manager, "Address", 5, Arrays.asList(FoodType.IRANIAN));
+        Restaurant second = restaurantManager.createRestaurant("Qazvin Garden", manager, "Address", 6, Arrays.asList(FoodType.IRANIAN));
+        restaurantManager.approveRestaurant(first);
+        restaurantManager.approveRestaurant(second);
+        restaurantManager.addFoodToRestaurant(first, new Food("Qeymeh Nesar", 50000, FoodCategory.MAIN_DISH));
+
+        restaurantManager.setRating(first, 3.0, 10);
+        restaurantManager.setRating(second, 4.0, 10);
+        assertEquals(List.of("Qazvin Garden", "Qazvin Grill"), restaurantManager.getSearchSuggestions("qazv"));
+
+        restaurantManager.setRating(first, 4.5, 11);
+        assertEquals(List.of("Qazvin Grill", "Qazvin Garden", "Qeymeh Nesar"), restaurantManager.getSearchSuggestions("q"));
     }
 
     @Test
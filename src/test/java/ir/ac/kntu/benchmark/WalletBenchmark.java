@@ -0,0 +1,77 @@
+package ir.ac.kntu.benchmark;
+
+import ir.ac.kntu.managers.WalletLedger;
+import ir.ac.kntu.models.Wallet;
+import ir.ac.kntu.models.enums.LedgerReason;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * WalletBenchmark - Wallet throughput with many threads on shared and separate wallets
+ *
+ * Run with: ./gradlew walletBenchmark [-Pthreads=16] [-Poperations=200000]
+ */
+public final class WalletBenchmark {
+
+    private WalletBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 2;
+        // Every operation leaves two ledger entries in memory, so the run is sized by count, not time
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        System.out.printf("Wallet benchmark: %d threads, %,d operations per thread%n", threads, operations);
+
+        run("One shared wallet", threads, operations, 1);
+        run("A pool of 16 wallets", threads, operations, 16);
+        run("One wallet per thread", threads, operations, threads);
+    }
+
+    // Each operation is a credit followed by a debit of the same amount
+    private static void run(String scenario, int threads, int operations, int walletCount) throws InterruptedException {
+        WalletLedger ledger = new WalletLedger();
+        List<Wallet> wallets = new ArrayList<>();
+        for (int i = 0; i < walletCount; i++) {
+            wallets.add(new Wallet(ledger));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Wallet wallet = wallets.get(t % walletCount);
+            Thread worker = new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < operations; i++) {
+                    wallet.credit(100, LedgerReason.TOP_UP);
+                    wallet.tryDebit(100, LedgerReason.CHECKOUT);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsed = (System.nanoTime() - began) / 1e9;
+
+        Map<Long, Long> rebuilt = ledger.rebuildBalances();
+        boolean consistent = wallets.stream()
+                .allMatch(wallet -> rebuilt.getOrDefault(wallet.getId(), 0L) == wallet.getBalance());
+        System.out.printf("%-24s %,14.0f ops/s  %,12d ledger entries  ledger %s%n",
+                scenario, (double) operations * threads / elapsed, ledger.size(), consistent ? "matches" : "DOES NOT MATCH");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
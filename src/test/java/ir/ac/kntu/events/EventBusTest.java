@@ -0,0 +1,284 @@
+package ir.ac.kntu.events;
+
+import ir.ac.kntu.managers.OrderManager;
+import ir.ac.kntu.models.Address;
+import ir.ac.kntu.models.Customer;
+import ir.ac.kntu.models.Food;
+import ir.ac.kntu.models.LedgerEntry;
+import ir.ac.kntu.models.Manager;
+import ir.ac.kntu.models.Order;
+import ir.ac.kntu.models.OrderItem;
+import ir.ac.kntu.models.Restaurant;
+import ir.ac.kntu.models.enums.FoodCategory;
+import ir.ac.kntu.models.enums.FoodType;
+import ir.ac.kntu.models.enums.LedgerReason;
+import ir.ac.kntu.models.enums.OrderStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EventBusTest - Delivery, ordering and slow-consumer policies of the event bus
+ */
+@DisplayName("Event Bus Tests")
+class EventBusTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    @DisplayName("Lifecycle - Order and wallet changes reach subscribers in order")
+    void testLifecycleEvents() throws Exception {
+        EventBus bus = EventBus.getInstance();
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        List<StatusChanged> changes = Collections.synchronizedList(new ArrayList<>());
+        Subscription all = bus.subscribe("test-all", SlowConsumerPolicy.BLOCK,
+                event -> seen.add(event.getClass().getSimpleName()));
+        Subscription typed = bus.subscribe("test-status", SlowConsumerPolicy.BLOCK,
+                EventSubscriber.ofType(StatusChanged.class, changes::add));
+        try {
+            Restaurant restaurant = new Restaurant("Event Kitchen", new Manager("Event", "Manager", "09180000001", "test123"),
+                    "Address", 1, List.of(FoodType.CAFE));
+            Customer customer = new Customer("Event", "Customer", "09180000002", "test123");
+            OrderManager orderManager = OrderManager.getInstance();
+            Order order = orderManager.createOrder(customer, restaurant,
+                    List.of(new OrderItem(new Food("Event Cake", 10000, FoodCategory.APPETIZER), 1)), 0, new Address("Home", 1));
+            orderManager.updateOrderStatus(order, OrderStatus.CANCELLED);
+            orderManager.addOrderReview(order, 5, "Not delivered, so not reviewed");
+
+            awaitTrue(() -> all.getLag() == 0 && typed.getLag() == 0);
+            assertEquals(List.of("OrderPlaced", "WalletMoved", "StatusChanged"), seen);
+            assertEquals(1, changes.size());
+            assertEquals(OrderStatus.REGISTERED, changes.get(0).getFrom());
+            assertEquals(OrderStatus.CANCELLED, changes.get(0).getTo());
+            assertEquals(order.getId(), changes.get(0).getOrder().getOrderId());
+            assertEquals("09180000002", changes.get(0).getOrder().getCustomerPhone());
+            assertEquals("Event Kitchen", changes.get(0).getOrder().getRestaurantName());
+        } finally {
+            bus.unsubscribe(all, 1000);
+            bus.unsubscribe(typed, 1000);
+        }
+        assertFalse(bus.hasSubscribers());
+    }
+
+    @Test
+    @DisplayName("Drop - A full ring drops events and reports the lag")
+    void testDropPolicy() throws Exception {
+        EventBus bus = new EventBus(spillDirectory);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        Subscription slow = bus.subscribe("slow-drop", SlowConsumerPolicy.DROP, 4, event -> {
+            started.countDown();
+            awaitGate(gate);
+            received.add(((WalletMoved) event).getEntry().getSequence());
+        });
+
+        // Once the subscriber holds event 1, the ring takes 2-5 and the rest are dropped
+        publishMoves(bus, 1, 1);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        publishMoves(bus, 2, 10);
+        assertEquals(5, slow.getDropped());
+        assertEquals(5, slow.getLag());
+        assertEquals(slow.getPublished(), slow.getDelivered() + slow.getDropped() + slow.getLag());
+
+        gate.countDown();
+        awaitTrue(() -> slow.getLag() == 0);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), received);
+        bus.unsubscribe(slow, 1000);
+    }
+
+    @Test
+    @DisplayName("Spill - Overflow goes to disk and comes back in order")
+    void testSpillPolicy() throws Exception {
+        EventBus bus = new EventBus(spillDirectory);
+        CountDownLatch gate = new CountDownLatch(1);
+        List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        Subscription slow = bus.subscribe("slow-spill", SlowConsumerPolicy.SPILL, 4, event -> {
+            awaitGate(gate);
+            received.add(((WalletMoved) event).getEntry().getSequence());
+        });
+
+        publishMoves(bus, 1, 20);
+        awaitTrue(() -> slow.getSpilled() > 0);
+        gate.countDown();
+        publishMoves(bus, 21, 30);
+
+        awaitTrue(() -> slow.getLag() == 0);
+        List<Long> expected = new ArrayList<>();
+        for (long sequence = 1; sequence <= 30; sequence++) {
+            expected.add(sequence);
+        }
+        assertEquals(expected, received);
+        assertEquals(0, slow.getDropped());
+        bus.unsubscribe(slow, 1000);
+    }
+
+    @Test
+    @DisplayName("Spill - Events left on disk by an earlier run are replayed from the checkpoint")
+    void testSpillReplay() throws Exception {
+        StringBuilder earlierRun = new StringBuilder();
+        long checkpoint = 0;
+        for (long sequence = 1; sequence <= 5; sequence++) {
+            earlierRun.append(move(sequence).toRecord()).append('\n');
+            if (sequence == 2) {
+                checkpoint = earlierRun.length();
+            }
+        }
+        Files.writeString(spillDirectory.resolve("events-durable.log"), earlierRun);
+        Files.writeString(spillDirectory.resolve("events-durable.offset"), Long.toString(checkpoint));
+
+        EventBus bus = new EventBus(spillDirectory);
+        List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        Subscription durable = bus.subscribe("durable", SlowConsumerPolicy.SPILL, 2,
+                event -> received.add(((WalletMoved) event).getEntry().getSequence()));
+        assertThrows(IllegalArgumentException.class,
+                () -> bus.subscribe("durable", SlowConsumerPolicy.SPILL, event -> { }));
+        publishMoves(bus, 6, 7);
+
+        awaitTrue(() -> durable.getLag() == 0);
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L), received);
+        assertEquals(5, durable.getPublished());
+        awaitTrue(() -> !Files.exists(spillDirectory.resolve("events-durable.log")));
+        assertFalse(Files.exists(spillDirectory.resolve("events-durable.offset")));
+        bus.unsubscribe(durable, 1000);
+    }
+
+    @Test
+    @DisplayName("Spill - Events replayed after a restart carry their own order and wallet details")
+    void testSpillReplayAfterRestart() throws Exception {
+        // An earlier run spilled events about an order this run has never seen
+        Restaurant restaurant = new Restaurant("Gone Kitchen", new Manager("Gone", "Manager", "09180000004", "test123"),
+                "Address", 1, List.of(FoodType.CAFE));
+        Customer customer = new Customer("Gone", "Customer", "09180000005", "test123");
+        Order order = new Order(customer, restaurant,
+                List.of(new OrderItem(new Food("Gone Cake", 10000, FoodCategory.APPETIZER), 2)), 5000, new Address("Home", 1));
+        order.setId(Integer.MAX_VALUE);
+        LedgerEntry refund = new LedgerEntry(7, 42, 2_500_000, 2_500_000, LedgerReason.REFUND);
+        String earlierRun = new OrderPlaced(order).toRecord() + "\n"
+                + new StatusChanged(order, OrderStatus.REGISTERED, OrderStatus.CANCELLED).toRecord() + "\n"
+                + new Reviewed(order, 4, "Late | cold").toRecord() + "\n"
+                + new WalletMoved(customer.getWalletAccount().getOwner(), refund).toRecord() + "\n";
+        Files.writeString(spillDirectory.resolve("events-restarted.log"), earlierRun);
+        assertNull(OrderManager.getInstance().findOrderById(order.getId()));
+
+        EventBus bus = new EventBus(spillDirectory);
+        List<DomainEvent> received = Collections.synchronizedList(new ArrayList<>());
+        Subscription restarted = bus.subscribe("restarted", SlowConsumerPolicy.SPILL, 2, received::add);
+        awaitTrue(() -> restarted.getLag() == 0);
+        bus.unsubscribe(restarted, 1000);
+
+        assertEquals(4, received.size());
+        OrderSummary placed = ((OrderPlaced) received.get(0)).getOrder();
+        assertEquals(Integer.MAX_VALUE, placed.getOrderId());
+        assertEquals("09180000005", placed.getCustomerPhone());
+        assertEquals("Gone Kitchen", placed.getRestaurantName());
+        assertEquals(2_500_000, placed.getAmount());
+        StatusChanged cancelled = (StatusChanged) received.get(1);
+        assertEquals("Gone Kitchen", cancelled.getOrder().getRestaurantName());
+        assertEquals(OrderStatus.CANCELLED, cancelled.getTo());
+        Reviewed reviewed = (Reviewed) received.get(2);
+        assertEquals("09180000005", reviewed.getOrder().getCustomerPhone());
+        assertEquals("Late | cold", reviewed.getComment());
+        WalletMoved moved = (WalletMoved) received.get(3);
+        assertEquals("customer:09180000005", moved.getOwner());
+        assertEquals(2_500_000, moved.getEntry().getAmount());
+        assertEquals(LedgerReason.REFUND, moved.getEntry().getReason());
+    }
+
+    @Test
+    @DisplayName("Block - Publishers wait for room, and a failing subscriber keeps receiving")
+    void testBlockPolicy() throws Exception {
+        EventBus bus = new EventBus(spillDirectory);
+        CountDownLatch gate = new CountDownLatch(1);
+        List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        Subscription slow = bus.subscribe("slow-block", SlowConsumerPolicy.BLOCK, 2, event -> {
+            awaitGate(gate);
+            long sequence = ((WalletMoved) event).getEntry().getSequence();
+            if (sequence == 3) {
+                throw new IllegalStateException("Subscriber bug");
+            }
+            received.add(sequence);
+        });
+
+        ExecutorService publisher = Executors.newSingleThreadExecutor();
+        Future<?> publishing = publisher.submit(() -> publishMoves(bus, 1, 8));
+        Thread.sleep(200);
+        assertFalse(publishing.isDone());
+
+        gate.countDown();
+        publishing.get(10, TimeUnit.SECONDS);
+        publisher.shutdown();
+        awaitTrue(() -> slow.getLag() == 0);
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L, 7L, 8L), received);
+        assertEquals(1, slow.getFailed());
+        assertEquals(0, slow.getDropped());
+        bus.unsubscribe(slow, 1000);
+    }
+
+    @Test
+    @DisplayName("Abandon - A subscriber whose thread dies no longer holds publishers up")
+    void testDeadWorker() throws Exception {
+        EventBus bus = new EventBus(spillDirectory);
+        CountDownLatch gate = new CountDownLatch(1);
+        Subscription broken = bus.subscribe("broken", SlowConsumerPolicy.BLOCK, 2, event -> {
+            awaitGate(gate);
+            throw new AssertionError("Subscriber crashed");
+        });
+
+        ExecutorService publisher = Executors.newSingleThreadExecutor();
+        Future<?> publishing = publisher.submit(() -> publishMoves(bus, 1, 8));
+        Thread.sleep(200);
+        assertFalse(publishing.isDone());
+
+        gate.countDown();
+        publishing.get(10, TimeUnit.SECONDS);
+        publisher.shutdown();
+        awaitTrue(broken::isAbandoned);
+        assertFalse(broken.isRunning());
+        assertEquals(0, broken.getLag());
+
+        publishMoves(bus, 9, 9);
+        assertFalse(bus.hasSubscribers());
+    }
+
+    private static void publishMoves(EventBus bus, long first, long last) {
+        for (long sequence = first; sequence <= last; sequence++) {
+            bus.publish(move(sequence));
+        }
+    }
+
+    private static WalletMoved move(long sequence) {
+        return new WalletMoved("customer:09180000003", new LedgerEntry(sequence, 1, 100, 100 * sequence, LedgerReason.TOP_UP));
+    }
+
+    private static void awaitGate(CountDownLatch gate) {
+        try {
+            gate.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the subscribers");
+            Thread.sleep(10);
+        }
+    }
+}
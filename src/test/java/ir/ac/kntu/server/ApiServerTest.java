@@ -0,0 +1,133 @@
+package ir.ac.kntu.server;
+
+import ir.ac.kntu.managers.RestaurantManager;
+import ir.ac.kntu.managers.UserManager;
+import ir.ac.kntu.models.Address;
+import ir.ac.kntu.models.Customer;
+import ir.ac.kntu.models.Food;
+import ir.ac.kntu.models.Manager;
+import ir.ac.kntu.models.Restaurant;
+import ir.ac.kntu.models.enums.FoodCategory;
+import ir.ac.kntu.models.enums.FoodType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ApiServerTest - Drives the JSON API over local HTTP
+ */
+@DisplayName("API Server Tests")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ApiServerTest {
+
+    private ApiServer server;
+    private HttpClient client;
+    private Restaurant restaurant;
+    private Food food;
+
+    @BeforeAll
+    void setUp() throws IOException {
+        RestaurantManager restaurantManager = RestaurantManager.getInstance();
+        Manager manager = (Manager) UserManager.getInstance().signUpManager("Api", "Manager", "09160000001", "test123");
+        restaurant = restaurantManager.createRestaurant("Api Kebab House", manager, "Address", 3,
+                List.of(FoodType.IRANIAN), 10000, 0);
+        restaurantManager.approveRestaurant(restaurant);
+        food = new Food("Api Koobideh", 90000, FoodCategory.MAIN_DISH);
+        restaurantManager.addFoodToRestaurant(restaurant, food);
+
+        Customer customer = (Customer) UserManager.getInstance().signUpCustomer("Api", "Customer", "09160000002", "test123");
+        customer.setWallet(150000);
+        customer.addAddress(new Address("Home", 3));
+
+        server = new ApiServer(0, 4);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterAll
+    void tearDown() throws InterruptedException {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Endpoints - Search, menu, cart, checkout and order status")
+    void testOrderFlow() throws Exception {
+        HttpResponse<String> search = send("GET", "/api/restaurants?q=kebab%20house&type=iranian", null, null);
+        assertEquals(200, search.statusCode());
+        assertTrue(search.body().contains("\"name\":\"Api Kebab House\""));
+        HttpResponse<String> suggest = send("GET", "/api/restaurants/suggest?q=api%20k", null, null);
+        assertEquals(200, suggest.statusCode());
+        assertTrue(suggest.body().startsWith("{\"suggestions\":["));
+        assertTrue(suggest.body().contains("\"Api Kebab House\""));
+        assertEquals(200, send("GET", "/api/restaurants/suggest", null, null).statusCode());
+
+        HttpResponse<String> menu = send("GET", "/api/restaurants/" + restaurant.getId() + "/menu", null, null);
+        assertTrue(menu.body().contains("\"name\":\"Api Koobideh\",\"price\":90000"));
+
+        assertEquals(401, send("POST", "/api/login", null, "phone=09160000002&password=wrong").statusCode());
+        String token = tokenOf(send("POST", "/api/login", null, "phone=09160000002&password=test123").body());
+
+        assertEquals(401, send("GET", "/api/cart", null, null).statusCode());
+        HttpResponse<String> cart = send("POST", "/api/cart", token,
+                "restaurantId=" + restaurant.getId() + "&foodId=" + food.getId() + "&quantity=1");
+        assertEquals(200, cart.statusCode());
+        assertTrue(cart.body().endsWith("\"total\":90000}"));
+
+        HttpResponse<String> order = send("POST", "/api/checkout", token, "addressId=1");
+        assertEquals(201, order.statusCode());
+        assertTrue(order.body().contains("\"status\":\"REGISTERED\""));
+        assertTrue(order.body().contains("\"total\":100000"));
+
+        // The cart was used up, and the wallet cannot cover a second order
+        assertTrue(send("GET", "/api/cart", token, null).body().contains("\"items\":[]"));
+        send("POST", "/api/cart", token, "restaurantId=" + restaurant.getId() + "&foodId=" + food.getId());
+        HttpResponse<String> refused = send("POST", "/api/checkout", token, "addressId=1");
+        assertEquals(409, refused.statusCode());
+        assertFalse(refused.body().contains("Session"));
+
+        HttpResponse<String> orders = send("GET", "/api/orders", token, null);
+        assertEquals(200, orders.statusCode());
+        assertTrue(orders.body().startsWith("{\"orders\":[{\"id\":"));
+    }
+
+    @Test
+    @DisplayName("Limits - Bad requests are answered with JSON errors")
+    void testErrors() throws Exception {
+        HttpResponse<String> tooLarge = send("POST", "/api/login", null, "x".repeat(ApiServer.MAX_BODY_BYTES + 1));
+        assertEquals(413, tooLarge.statusCode());
+        assertEquals("{\"error\":\"Request body too large\"}", tooLarge.body());
+
+        assertEquals(404, send("GET", "/api/nothing", null, null).statusCode());
+        assertEquals(405, send("POST", "/api/restaurants", null, "").statusCode());
+        assertEquals(400, send("GET", "/api/restaurants?type=PIZZA", null, null).statusCode());
+        assertEquals(414, send("GET", "/api/restaurants?q=" + "a".repeat(ApiServer.MAX_QUERY_LENGTH), null, null).statusCode());
+        assertEquals(401, send("GET", "/api/reports/summary", null, null).statusCode());
+    }
+
+    private HttpResponse<String> send(String method, String path, String token, String form)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, form == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(form))
+                .header("Content-Type", "application/x-www-form-urlencoded");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String tokenOf(String body) {
+        int start = body.indexOf("\"token\":\"") + "\"token\":\"".length();
+        return body.substring(start, body.indexOf('"', start));
+    }
+}
@@ -0,0 +1,107 @@
+package ir.ac.kntu.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MenuServerTest - Runs the menus over local TCP connections
+ */
+@DisplayName("Menu Server Tests")
+class MenuServerTest {
+
+    private MenuServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MenuServer(0, 2);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        server.shutdown(1000);
+    }
+
+    @Test
+    @DisplayName("Connections - Each client gets its own main menu and can exit")
+    void testClientsAreServedIndependently() throws Exception {
+        try (Socket first = connect(); Socket second = connect()) {
+            BufferedReader firstReader = readerOf(first);
+            BufferedReader secondReader = readerOf(second);
+            assertTrue(readUntil(firstReader, "Sign In"));
+            assertTrue(readUntil(secondReader, "Sign In"));
+            assertEquals(2, server.getActiveConnections());
+
+            writerOf(first).println("0");
+            assertFalse(readUntil(firstReader, "never printed"));
+
+            // The other client is untouched and still answers
+            writerOf(second).println("9");
+            assertTrue(readUntil(secondReader, "Command is not valid"));
+        }
+    }
+
+    @Test
+    @DisplayName("Connections - Clients over the limit are turned away")
+    void testConnectionLimit() throws Exception {
+        try (Socket first = connect(); Socket second = connect(); Socket third = connect()) {
+            assertTrue(readUntil(readerOf(first), "Sign In"));
+            assertTrue(readUntil(readerOf(second), "Sign In"));
+
+            BufferedReader rejected = readerOf(third);
+            assertEquals("Server is busy, please try again later.", rejected.readLine());
+            assertNull(rejected.readLine());
+        }
+    }
+
+    @Test
+    @DisplayName("Shutdown - Open connections are closed after the grace period")
+    void testGracefulShutdown() throws Exception {
+        try (Socket client = connect()) {
+            BufferedReader reader = readerOf(client);
+            assertTrue(readUntil(reader, "Sign In"));
+
+            server.shutdown(200);
+            assertFalse(server.isRunning());
+            assertFalse(readUntil(reader, "never printed"));
+            assertEquals(0, server.getActiveConnections());
+        }
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket("localhost", server.getPort());
+        socket.setSoTimeout(10_000);
+        return socket;
+    }
+
+    private static BufferedReader readerOf(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static PrintWriter writerOf(Socket socket) throws IOException {
+        return new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+    }
+
+    // True once a line containing the text arrives, false if the server closes the connection first
+    private static boolean readUntil(BufferedReader reader, String text) throws IOException {
+        String line = reader.readLine();
+        while (line != null) {
+            if (line.contains(text)) {
+                return true;
+            }
+            line = reader.readLine();
+        }
+        return false;
+    }
+}
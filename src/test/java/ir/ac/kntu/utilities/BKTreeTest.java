@@ -0,0 +1,101 @@
+package ir.ac.kntu.utilities;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BKTreeTest - Unit tests for the edit-distance name tree
+ */
+@DisplayName("BK-Tree Tests")
+class BKTreeTest {
+
+    private BKTree buildTree() {
+        BKTree tree = new BKTree();
+        tree.add("Cheese Pizza");
+        tree.add("Pepperoni Pizza");
+        tree.add("Beef Burger");
+        tree.add("Chelo Kebab");
+        tree.add("Kebab");
+        return tree;
+    }
+
+    @Test
+    @DisplayName("Find Within - Typos inside the distance are found, closest first")
+    void testFindWithin() {
+        BKTree tree = buildTree();
+
+        assertEquals(List.of("Kebab"), tree.findWithin("kebob", 1));
+        assertEquals(List.of("Beef Burger"), tree.findWithin("Beef Burgr", 2));
+        assertTrue(tree.findWithin("sushi", 2).isEmpty());
+
+        List<String> near = tree.findWithin("Chelo Kebob", 7);
+        assertEquals("Chelo Kebab", near.get(0));
+        assertTrue(near.contains("Kebab"));
+    }
+
+    @Test
+    @DisplayName("Find Within - Case and punctuation are ignored")
+    void testNormalization() {
+        assertEquals(List.of("Cheese Pizza"), buildTree().findWithin("CHEESE PIZZA!", 0));
+    }
+
+    @Test
+    @DisplayName("Remove - Removed names are no longer returned")
+    void testRemove() {
+        BKTree tree = buildTree();
+        tree.remove("Kebab");
+
+        assertFalse(tree.contains("Kebab"));
+        assertEquals(4, tree.size());
+        assertTrue(tree.findWithin("kebab", 1).isEmpty());
+
+        tree.add("Kebab");
+        assertEquals(List.of("Kebab"), tree.findWithin("kebab", 0));
+    }
+
+    @Test
+    @DisplayName("Remove - Tree stays correct across rebuilds")
+    void testMatchesBruteForce() {
+        Random random = new Random(7);
+        BKTree tree = new BKTree();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String name = randomName(random);
+            if (!names.contains(name)) {
+                names.add(name);
+                tree.add(name);
+            }
+        }
+        for (int i = 0; i < 200; i++) {
+            tree.remove(names.remove(random.nextInt(names.size())));
+        }
+        assertTrue(tree.emptyNodeCount() <= tree.size());
+
+        for (int i = 0; i < 50; i++) {
+            String query = randomName(random);
+            HashSet<String> expected = new HashSet<>();
+            for (String name : names) {
+                if (TextSimilarity.levenshteinDistance(query, name) <= 2) {
+                    expected.add(name);
+                }
+            }
+            assertEquals(expected, new HashSet<>(tree.findWithin(query, 2)), "query " + query);
+        }
+    }
+
+    private String randomName(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int length = 3 + random.nextInt(5);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(4)));
+        }
+        return builder.toString();
+    }
+}
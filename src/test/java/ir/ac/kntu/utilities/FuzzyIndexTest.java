@@ -0,0 +1,90 @@
+package ir.ac.kntu.utilities;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FuzzyIndexTest - Unit tests for the trigram candidate index
+ */
+@DisplayName("Fuzzy Index Tests")
+class FuzzyIndexTest {
+
+    private FuzzyIndex buildIndex() {
+        FuzzyIndex index = new FuzzyIndex();
+        index.add("Cheese Pizza");
+        index.add("Pepperoni Pizza");
+        index.add("Beef Burger");
+        index.add("Chelo Kebab");
+        return index;
+    }
+
+    @Test
+    @DisplayName("Candidates - Misspelled query keeps the intended name")
+    void testMisspelledQuery() {
+        List<String> candidates = buildIndex().candidates("piza");
+
+        assertTrue(candidates.contains("Cheese Pizza"));
+        assertTrue(candidates.contains("Pepperoni Pizza"));
+        assertFalse(candidates.contains("Beef Burger"));
+    }
+
+    @Test
+    @DisplayName("Candidates - Unrelated query is pruned")
+    void testUnrelatedQuery() {
+        assertTrue(buildIndex().candidates("xyzqw").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Candidates - Threshold trades recall for pruning")
+    void testThreshold() {
+        FuzzyIndex index = buildIndex();
+
+        index.setThreshold(0.1);
+        int loose = index.candidates("kebob burgr").size();
+
+        index.setThreshold(0.9);
+        int strict = index.candidates("kebob burgr").size();
+
+        assertTrue(loose >= strict);
+        assertThrows(IllegalArgumentException.class, () -> index.setThreshold(1.5));
+    }
+
+    @Test
+    @DisplayName("Candidates - Order is fixed whatever order names were added in")
+    void testStableOrder() {
+        FuzzyIndex reversed = new FuzzyIndex();
+        reversed.add("Chelo Kebab");
+        reversed.add("Beef Burger");
+        reversed.add("Pepperoni Pizza");
+        reversed.add("Cheese Pizza");
+
+        List<String> candidates = buildIndex().candidates("pizza");
+        assertEquals(List.of("Cheese Pizza", "Pepperoni Pizza"), candidates);
+        assertEquals(candidates, reversed.candidates("pizza"));
+    }
+
+    @Test
+    @DisplayName("Remove - Removed names are no longer candidates")
+    void testRemove() {
+        FuzzyIndex index = buildIndex();
+        index.remove("Beef Burger");
+
+        assertFalse(index.contains("Beef Burger"));
+        assertEquals(3, index.size());
+        assertFalse(index.candidates("burger").contains("Beef Burger"));
+    }
+
+    @Test
+    @DisplayName("Find Best Matches - Same ranking as scoring all candidates")
+    void testFindBestMatches() {
+        List<TextSimilarity.SearchResult> results = TextSimilarity.findBestMatches("pizza", buildIndex(), 2);
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).getText().contains("Pizza"));
+        assertTrue(results.get(1).getText().contains("Pizza"));
+    }
+}
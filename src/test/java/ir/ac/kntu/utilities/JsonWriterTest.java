@@ -0,0 +1,63 @@
+package ir.ac.kntu.utilities;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JsonWriterTest - Unit tests for the streaming JSON writer
+ */
+@DisplayName("Json Writer Tests")
+class JsonWriterTest {
+
+    @Test
+    @DisplayName("Nesting - Commas are placed between members and elements only")
+    void testNesting() {
+        JsonWriter json = new JsonWriter();
+        json.beginObject()
+                .field("id", 7)
+                .name("tags").beginArray().value("a").value("b").beginObject().endObject().endArray()
+                .name("empty").beginArray().endArray()
+                .field("open", true)
+                .name("note").nullValue()
+                .endObject();
+
+        assertEquals("{\"id\":7,\"tags\":[\"a\",\"b\",{}],\"empty\":[],\"open\":true,\"note\":null}", json.toString());
+    }
+
+    @Test
+    @DisplayName("Values - Strings are escaped and doubles written compactly")
+    void testValues() {
+        JsonWriter json = new JsonWriter();
+        json.beginArray()
+                .value("say \"hi\"\\\n\t")
+                .value("\u0001")
+                .value(25000.0)
+                .value(4.5)
+                .value(Double.NaN)
+                .value((String) null)
+                .endArray();
+
+        assertEquals("[\"say \\\"hi\\\"\\\\\\n\\t\",\"\\u0001\",25000,4.5,null,null]", json.toString());
+    }
+
+    @Test
+    @DisplayName("Reset - Writer is reusable and rejects unbalanced closes")
+    void testResetAndErrors() {
+        JsonWriter json = new JsonWriter(4);
+        json.beginObject().field("first", 1).endObject();
+        json.reset();
+        for (int i = 0; i < 20; i++) {
+            json.beginArray();
+        }
+        for (int i = 0; i < 20; i++) {
+            json.endArray();
+        }
+        assertEquals("[".repeat(20) + "]".repeat(20), json.toString());
+
+        assertThrows(IllegalStateException.class, json::endObject);
+        json.reset();
+        assertThrows(IllegalStateException.class, () -> json.name("top"));
+    }
+}
@@ -0,0 +1,73 @@
+package ir.ac.kntu.utilities;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryCacheTest - Unit tests for the versioned LRU query cache
+ */
+@DisplayName("Query Cache Tests")
+class QueryCacheTest {
+
+    @Test
+    @DisplayName("Get - Hits only for the version the entry was stored with")
+    void testVersionInvalidation() {
+        QueryCache<String> cache = new QueryCache<>();
+        cache.put("pizza", 1, "result");
+
+        assertEquals("result", cache.get("pizza", 1));
+        assertNull(cache.get("pizza", 2));
+        assertNull(cache.get("pizza", 1));
+
+        QueryCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(0, stats.getSize());
+    }
+
+    @Test
+    @DisplayName("Put - Least recently used entry is evicted")
+    void testLruEviction() {
+        QueryCache<String> cache = new QueryCache<>(2, 0, System::nanoTime);
+        cache.put("pizza", 1, "p");
+        cache.put("kebab", 1, "k");
+        cache.get("pizza", 1);
+        cache.put("burger", 1, "b");
+
+        assertEquals("p", cache.get("pizza", 1));
+        assertNull(cache.get("kebab", 1));
+        assertEquals(1, cache.getStats().getEvictions());
+
+        cache.configure(1, 0);
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getStats().getEvictions());
+    }
+
+    @Test
+    @DisplayName("Get - Entries expire after the TTL")
+    void testTtl() {
+        AtomicLong now = new AtomicLong();
+        QueryCache<String> cache = new QueryCache<>(10, 1000, now::get);
+        cache.put("pizza", 1, "result");
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertEquals("result", cache.get("pizza", 1));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertNull(cache.get("pizza", 1));
+    }
+
+    @Test
+    @DisplayName("Configure - Invalid settings are rejected")
+    void testConfigure() {
+        QueryCache<String> cache = new QueryCache<>();
+
+        assertThrows(IllegalArgumentException.class, () -> cache.configure(0, 1000));
+        assertThrows(IllegalArgumentException.class, () -> cache.configure(10, -1));
+    }
+}
@@ -0,0 +1,52 @@
+package ir.ac.kntu.utilities;
+
+import ir.ac.kntu.managers.OrderManager;
+import ir.ac.kntu.models.Address;
+import ir.ac.kntu.models.Customer;
+import ir.ac.kntu.models.Food;
+import ir.ac.kntu.models.Manager;
+import ir.ac.kntu.models.Restaurant;
+import ir.ac.kntu.models.enums.FoodCategory;
+import ir.ac.kntu.models.enums.FoodType;
+import ir.ac.kntu.models.enums.OrderStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RandomDataGeneratorTest - Unit tests for the test data generator
+ */
+@DisplayName("Random Data Generator Tests")
+class RandomDataGeneratorTest {
+
+    @Test
+    @DisplayName("Orders - A full restaurant intake skips orders instead of failing")
+    void testOrdersBeyondIntakeCapacity() {
+        Restaurant restaurant = new Restaurant("Generator Kitchen", new Manager("Generator", "Manager", "09180000003", "test123"),
+                "Address", 1, List.of(FoodType.CAFE));
+        Food tea = new Food("Generator Tea", 10000, FoodCategory.BEVERAGE);
+        tea.setAvailable(true);
+        restaurant.addFood(tea);
+        Customer customer = new Customer("Generator", "Customer", "09180000004", "test123");
+        customer.addAddress(new Address("Home", 1));
+
+        OrderManager orderManager = OrderManager.getInstance();
+        int capacity = orderManager.getIntakeCapacity();
+        orderManager.setIntakeCapacity(3);
+        try {
+            int placed = RandomDataGenerator.generateOrders(200, List.of(customer), List.of(restaurant));
+
+            assertTrue(placed < 200);
+            assertEquals(placed, orderManager.getOrdersByRestaurant(restaurant).size());
+            assertEquals(3, orderManager.getNewOrdersByRestaurant(restaurant).size());
+            assertEquals(3, orderManager.getWaitingOrderCount(restaurant));
+            assertTrue(orderManager.getOrdersByRestaurant(restaurant).stream()
+                    .anyMatch(order -> order.getStatus() != OrderStatus.REGISTERED));
+        } finally {
+            orderManager.setIntakeCapacity(capacity);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ir.ac.kntu.utilities;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SpellingDictionaryTest - Unit tests for the symmetric-delete query corrector
+ */
+@DisplayName("Spelling Dictionary Tests")
+class SpellingDictionaryTest {
+
+    private SpellingDictionary buildDictionary() {
+        SpellingDictionary dictionary = new SpellingDictionary();
+        dictionary.addName("Cheese Pizza");
+        dictionary.addName("Pepperoni Pizza");
+        dictionary.addName("Chelo Kebab");
+        dictionary.addName("Zereshk Polo");
+        return dictionary;
+    }
+
+    @Test
+    @DisplayName("Correct - Misspelled tokens map to the closest known token")
+    void testCorrect() {
+        SpellingDictionary dictionary = buildDictionary();
+
+        assertEquals("pizza", dictionary.correct("piza"));
+        assertEquals("kebab", dictionary.correct("kebob"));
+        assertEquals("pepperoni", dictionary.correct("peperonni"));
+        assertEquals("zereshk", dictionary.correct("zereshkk"));
+    }
+
+    @Test
+    @DisplayName("Correct - Known words, prefixes and far tokens are left alone")
+    void testNoCorrection() {
+        SpellingDictionary dictionary = buildDictionary();
+
+        assertEquals("pizza", dictionary.correct("pizza"));
+        assertEquals("pep", dictionary.correct("pep"));
+        assertEquals("sushi", dictionary.correct("sushi"));
+    }
+
+    @Test
+    @DisplayName("Correct Query - Only changed queries are rewritten")
+    void testCorrectQuery() {
+        SpellingDictionary dictionary = buildDictionary();
+
+        assertEquals("cheese pizza", dictionary.correctQuery("Chese Piza"));
+        assertEquals("Cheese Pizza", dictionary.correctQuery("Cheese Pizza"));
+    }
+
+    @Test
+    @DisplayName("Remove Name - Tokens disappear once no name uses them")
+    void testRemoveName() {
+        SpellingDictionary dictionary = buildDictionary();
+
+        dictionary.removeName("Cheese Pizza");
+        assertTrue(dictionary.containsWord("pizza"));
+        assertFalse(dictionary.containsWord("cheese"));
+
+        dictionary.removeName("Pepperoni Pizza");
+        assertFalse(dictionary.containsWord("pizza"));
+        assertEquals("piza", dictionary.correct("piza"));
+    }
+
+    @Test
+    @DisplayName("Configure - Smaller limits shrink the delete table")
+    void testConfigure() {
+        SpellingDictionary dictionary = buildDictionary();
+        int fullSize = dictionary.deleteCount();
+
+        dictionary.configure(1, 4);
+        assertTrue(dictionary.deleteCount() < fullSize);
+        assertEquals("kebab", dictionary.correct("kebob"));
+        assertEquals("peperonni", dictionary.correct("peperonni"));
+
+        assertThrows(IllegalArgumentException.class, () -> dictionary.configure(3, 3));
+    }
+}
@@ -0,0 +1,81 @@
+package ir.ac.kntu.utilities;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StripedLocksTest - Unit tests for the striped lock pool
+ */
+@DisplayName("Striped Locks Tests")
+class StripedLocksTest {
+
+    @Test
+    @DisplayName("Constructor - Stripe count is rounded up to a power of two")
+    void testStripeCount() {
+        assertEquals(1, new StripedLocks(1).stripeCount());
+        assertEquals(8, new StripedLocks(5).stripeCount());
+        assertEquals(64, new StripedLocks().stripeCount());
+        assertThrows(IllegalArgumentException.class, () -> new StripedLocks(0));
+    }
+
+    @Test
+    @DisplayName("LockFor - Same key always maps to the same lock")
+    void testSameKeySameLock() {
+        StripedLocks locks = new StripedLocks(16);
+        assertSame(locks.lockFor("customer-1"), locks.lockFor("customer-1"));
+        assertNotNull(locks.lockFor(null));
+    }
+
+    @Test
+    @DisplayName("WithLock - Read-modify-write on one key loses no updates")
+    void testNoLostUpdates() throws Exception {
+        StripedLocks locks = new StripedLocks(4);
+        long[] counter = new long[1];
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    locks.runWithLock("wallet", () -> counter[0]++);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(40000, counter[0]);
+    }
+
+    @Test
+    @DisplayName("WithLocks - Opposite lock order does not deadlock")
+    void testPairOrdering() throws Exception {
+        StripedLocks locks = new StripedLocks(8);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<?> forward = pool.submit(() -> {
+            for (int i = 0; i < 5000; i++) {
+                locks.withLocks("a", "b", () -> null);
+            }
+        });
+        Future<?> backward = pool.submit(() -> {
+            for (int i = 0; i < 5000; i++) {
+                locks.withLocks("b", "a", () -> null);
+            }
+        });
+        forward.get(10, TimeUnit.SECONDS);
+        backward.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(Integer.valueOf(7), locks.withLocks("x", "x", () -> 7));
+    }
+}
@@ -0,0 +1,70 @@
+package ir.ac.kntu.utilities;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SuggestionTrieTest - Unit tests for the ranked autocomplete trie
+ */
+@DisplayName("Suggestion Trie Tests")
+class SuggestionTrieTest {
+
+    private SuggestionTrie buildTrie() {
+        SuggestionTrie trie = new SuggestionTrie(3);
+        trie.add("Pizza Palace", 3.5);
+        trie.add("Pizza Hut", 4.5);
+        trie.add("Pizzeria Roma", 4.0);
+        trie.add("Pasta House", 5.0);
+        trie.add("Burger King", 4.2);
+        return trie;
+    }
+
+    @Test
+    @DisplayName("Suggest - Completions are ranked by weight")
+    void testRanking() {
+        SuggestionTrie trie = buildTrie();
+
+        assertEquals(List.of("Pizza Hut", "Pizzeria Roma", "Pizza Palace"), trie.suggest("piz"));
+        assertEquals(List.of("Pizza Hut", "Pizza Palace"), trie.suggest("PIZZA "));
+        assertEquals(List.of("Pasta House", "Pizza Hut", "Pizzeria Roma"), trie.suggest("p"));
+        assertEquals(3, trie.suggest("").size());
+    }
+
+    @Test
+    @DisplayName("Suggest - Unknown prefixes have no completions")
+    void testUnknownPrefix() {
+        SuggestionTrie trie = buildTrie();
+
+        assertTrue(trie.suggest("sushi").isEmpty());
+        assertTrue(trie.suggest("pizzaz").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Add - Re-adding a name updates its rank")
+    void testReweight() {
+        SuggestionTrie trie = buildTrie();
+        trie.add("Pizza Palace", 4.9);
+
+        assertEquals("Pizza Palace", trie.suggest("piz").get(0));
+        assertEquals(5, trie.size());
+    }
+
+    @Test
+    @DisplayName("Remove - Removed names leave the completions")
+    void testRemove() {
+        SuggestionTrie trie = buildTrie();
+        trie.remove("Pizza Hut");
+        trie.remove("Pizzeria Roma");
+
+        assertFalse(trie.contains("Pizza Hut"));
+        assertEquals(List.of("Pizza Palace"), trie.suggest("piz"));
+        assertEquals(List.of("Pasta House", "Pizza Palace"), trie.suggest("p"));
+
+        trie.add("Pizzeria Roma", 1.0);
+        assertEquals(List.of("Pizza Palace", "Pizzeria Roma"), trie.suggest("pizz"));
+    }
+}
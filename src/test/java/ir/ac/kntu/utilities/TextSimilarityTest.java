@@ -3,8 +3,10 @@ package ir.ac.kntu.utilities;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -43,6 +45,41 @@ class TextSimilarityTest {
         assertEquals(5, TextSimilarity.levenshteinDistance(null, "hello"));
     }
 
+    @Test
+    @DisplayName("Levenshtein Distance - Bounded cutoff")
+    void testLevenshteinDistanceBounded() {
+        assertEquals(3, TextSimilarity.levenshteinDistance("kitten", "sitting", 3));
+        assertEquals(3, TextSimilarity.levenshteinDistance("kitten", "sitting", 2));
+        assertEquals(1, TextSimilarity.levenshteinDistance("hello", "world", 0));
+        assertEquals(0, TextSimilarity.levenshteinDistance("hello", "hello", 0));
+        assertThrows(IllegalArgumentException.class, () -> TextSimilarity.levenshteinDistance("a", "b", -1));
+    }
+
+    @Test
+    @DisplayName("Levenshtein Distance - Matches full matrix on short and long strings")
+    void testLevenshteinDistanceMatchesReference() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            String first = randomString(random, random.nextInt(90));
+            String second = randomString(random, random.nextInt(90));
+            int expected = referenceDistance(first, second);
+
+            assertEquals(expected, TextSimilarity.levenshteinDistance(first, second));
+
+            int maxDistance = random.nextInt(40);
+            int bounded = TextSimilarity.levenshteinDistance(first, second, maxDistance);
+            assertEquals(expected <= maxDistance ? expected : maxDistance + 1, bounded);
+        }
+    }
+
+    @Test
+    @DisplayName("Levenshtein Distance - Non-ASCII characters")
+    void testLevenshteinDistanceNonAscii() {
+        assertEquals(1, TextSimilarity.levenshteinDistance("کباب", "کبات"));
+        assertEquals(referenceDistance("café crème", "cafe creme"),
+                TextSimilarity.levenshteinDistance("café crème", "cafe creme"));
+    }
+
     @Test
     @DisplayName("Levenshtein Similarity - Exact match")
     void testLevenshteinSimilarityExactMatch() {
@@ -138,6 +175,59 @@ class TextSimilarityTest {
         // Should have very few or no results due to low similarity
     }
 
+    @Test
+    @DisplayName("Find Best Matches - Parallel top-K keeps the sorted order")
+    void testFindBestMatchesLargeCandidateSet() {
+        Random random = new Random(11);
+        List<String> candidates = new ArrayList<>();
+        for (int i = 0; i < TopKMatcher.PARALLEL_THRESHOLD * 3; i++) {
+            candidates.add(randomString(random, 3 + random.nextInt(6)) + " " + randomString(random, 4));
+        }
+
+        List<TextSimilarity.SearchResult> expected = new ArrayList<>();
+        for (String candidate : candidates) {
+            double score = TextSimilarity.combinedSimilarity("abca", candidate);
+            if (score > TopKMatcher.MIN_SCORE) {
+                expected.add(new TextSimilarity.SearchResult(candidate, score));
+            }
+        }
+        expected.sort((first, second) -> Double.compare(second.getScore(), first.getScore()));
+
+        List<TextSimilarity.SearchResult> results = TextSimilarity.findBestMatches("abca", candidates, 50);
+        List<TextSimilarity.SearchResult> normalized = TextSimilarity.findBestMatches(
+                "abca", NormalizedText.normalizeAll(candidates), 50);
+
+        assertEquals(50, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(expected.get(i).getText(), results.get(i).getText());
+            assertEquals(expected.get(i).getScore(), results.get(i).getScore());
+            assertEquals(expected.get(i).getText(), normalized.get(i).getText());
+        }
+    }
+
+    @Test
+    @DisplayName("Normalize String - Keeps only lowercase letters, digits and inner spaces")
+    void testNormalizeString() {
+        String[] inputs = {"  Pizza-Hut!! ", "CAFÉ 24/7", "\tBeef\u000B Burger\n", "", "!!!", "Ab1 c2D"};
+        for (String input : inputs) {
+            String expected = input.toLowerCase().replaceAll("[^a-zA-Z0-9\\s]", "").trim();
+            assertEquals(expected, TextSimilarity.normalizeString(input));
+        }
+    }
+
+    @Test
+    @DisplayName("Combined Similarity - Precomputed forms give the same score")
+    void testNormalizedTextSimilarity() {
+        String[] targets = {"Cheese Pizza!", "pizza margherita", "Beef  Burger", "", "PIZZA"};
+        NormalizedText query = new NormalizedText("Pizza");
+        for (String target : targets) {
+            assertEquals(TextSimilarity.combinedSimilarity("Pizza", target),
+                    TextSimilarity.combinedSimilarity(query, new NormalizedText(target)));
+            assertEquals(TextSimilarity.jaccardSimilarity("Pizza", target),
+                    TextSimilarity.jaccardSimilarity(query, new NormalizedText(target)));
+        }
+    }
+
     @Test
     @DisplayName("Autocomplete Suggestions - Basic functionality")
     void testAutocompleteSuggestions() {
@@ -193,5 +283,30 @@ class TextSimilarityTest {
         assertNotNull(TextSimilarity.findBestMatches(null, candidates, 10));
         assertNotNull(TextSimilarity.getAutocompleteSuggestions(null, candidates, 10));
     }
-}
 
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(4)));
+        }
+        return builder.toString();
+    }
+
+    private static int referenceDistance(String first, String second) {
+        int[][] matrix = new int[first.length() + 1][second.length() + 1];
+        for (int i = 0; i <= first.length(); i++) {
+            matrix[i][0] = i;
+        }
+        for (int j = 0; j <= second.length(); j++) {
+            matrix[0][j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            for (int j = 1; j <= second.length(); j++) {
+                int cost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                matrix[i][j] = Math.min(Math.min(matrix[i - 1][j] + 1, matrix[i][j - 1] + 1),
+                        matrix[i - 1][j - 1] + cost);
+            }
+        }
+        return matrix[first.length()][second.length()];
+    }
+}